@@ -9,6 +9,7 @@ plugins {
 	id("com.google.cloud.tools.jib") version "3.4.1"
 	id("org.springdoc.openapi-gradle-plugin") version "1.9.0"
 	id("org.flywaydb.flyway") version "12.0.1"
+	id("me.champeau.jmh") version "0.7.3"
 }
 
 buildscript {
@@ -81,6 +82,7 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-actuator")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.8.4")
+	implementation("com.github.ben-manes.caffeine:caffeine")
 	compileOnly("org.projectlombok:lombok")
 	annotationProcessor("org.projectlombok:lombok")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
@@ -110,6 +112,16 @@ dependencies {
     implementation("dev.samstevens.totp:totp:1.7.1")
 }
 
+jmh {
+	jmhVersion = "1.37"
+	fork = 1
+	warmupIterations = 3
+	iterations = 5
+	resultFormat = "JSON"
+	// Versioned file name so results from two releases can be diffed side by side
+	resultsFile = layout.buildDirectory.file("reports/jmh/results-${project.version}.json")
+}
+
 spotless {
 	java {
 		licenseHeaderFile(file("licence-header.txt"))
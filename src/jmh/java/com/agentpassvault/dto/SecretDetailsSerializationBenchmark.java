@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.dto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/** Serialization cost of the {@code GET /api/v1/secrets} response body. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SecretDetailsSerializationBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  public int rows;
+
+  private final ObjectMapper objectMapper = JsonMapper.builder().build();
+  private List<SecretDetailsResponse> secrets;
+
+  @Setup
+  public void setUp() {
+    Instant now = Instant.now();
+    Map<String, Object> schema =
+        Map.of("template", "login", "version", 1, "fields", Map.of("password", "string"));
+
+    secrets = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      String secretId = String.valueOf(700_000_000_000L + i);
+      List<LeaseInfo> leases =
+          List.of(
+              new LeaseInfo(
+                  String.valueOf(800_000_000_000L + i),
+                  "7301",
+                  "build-agent",
+                  "-----BEGIN PUBLIC KEY-----benchmark-----END PUBLIC KEY-----",
+                  now.plusSeconds(3600)));
+      secrets.add(
+          new SecretDetailsResponse(
+              secretId,
+              "secret-" + i,
+              Map.of("env", i % 2 == 0 ? "prod" : "staging", "owner", "team-" + (i % 16)),
+              schema,
+              leases,
+              now,
+              now));
+    }
+  }
+
+  @Benchmark
+  public byte[] writeValueAsBytes() {
+    return objectMapper.writeValueAsBytes(secrets);
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.security;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtConverterBenchmark {
+
+  private final JwtConverter jwtConverter = new JwtConverter();
+  private Jwt jwt;
+
+  @Setup
+  public void setUp() {
+    Instant now = Instant.now();
+    jwt =
+        Jwt.withTokenValue("benchmark-token")
+            .header("alg", "HS256")
+            .subject("7301")
+            .claim("tenant_id", "42")
+            .claim("role", "AGENT")
+            .claim("type", "access")
+            .issuedAt(now)
+            .expiresAt(now.plusSeconds(3600))
+            .build();
+  }
+
+  @Benchmark
+  public AbstractAuthenticationToken convert() {
+    return jwtConverter.convert(jwt);
+  }
+}
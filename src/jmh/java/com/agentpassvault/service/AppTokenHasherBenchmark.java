@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.service;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AppTokenHasherBenchmark {
+
+  // Same shape as the tokens issued by AgentService: "at_" + 32 random bytes, base64url
+  private final String appToken = "at_3q2-7wQk1v0JcRvZp9xH4mYbN6uT8sLfGaEdWiKoP2c";
+
+  @Benchmark
+  public String hash() {
+    return AppTokenHasher.hash(appToken);
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tools.jackson.databind.json.JsonMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SecretValidationBenchmark {
+
+  private SecretService secretService;
+  private Map<String, Object> metadata;
+  private Map<String, Object> schema;
+
+  @Setup
+  public void setUp() {
+    // Validation only touches the ObjectMapper, so the repositories and cache can stay unset
+    secretService = new SecretService(null, null, null, null, JsonMapper.builder().build(), null);
+
+    // Roughly 4 KB once serialized, half of the 8 KB limit
+    metadata = new LinkedHashMap<>();
+    for (int i = 0; i < 64; i++) {
+      metadata.put("key-" + i, "value-" + i + "-" + "x".repeat(40));
+    }
+    metadata.put("tags", List.of("prod", "database", "primary"));
+
+    schema =
+        Map.of(
+            "template",
+            "login",
+            "version",
+            1,
+            "fields",
+            Map.of("username", "string", "password", "string", "url", "string"));
+  }
+
+  @Benchmark
+  public void validateMetadataSize() {
+    secretService.validateMetadataSize(metadata);
+  }
+
+  @Benchmark
+  public void validateSchema() {
+    secretService.validateSchema(schema);
+  }
+}
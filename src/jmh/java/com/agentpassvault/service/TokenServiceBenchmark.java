@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.service;
+
+import com.agentpassvault.config.JwtConfig;
+import com.agentpassvault.model.Role;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenServiceBenchmark {
+
+  private static final String JWT_SECRET = "dGhpcy1pcy1hLWJlbmNobWFyay1vbmx5LWp3dC1zZWNyZXQtMzItYnl0ZXM=";
+
+  private TokenService tokenService;
+  private String refreshToken;
+
+  @Setup
+  public void setUp() {
+    SecretKey key = new SecretKeySpec(Base64.getDecoder().decode(JWT_SECRET), "HmacSHA256");
+    JwtConfig jwtConfig =
+        new JwtConfig() {
+          @Override
+          public SecretKey getSecretKey() {
+            return key;
+          }
+
+          @Override
+          public long getExpirationMinutes() {
+            return 60;
+          }
+
+          @Override
+          public long getRefreshExpirationMinutes() {
+            return 10080;
+          }
+        };
+    tokenService = new TokenService(jwtConfig);
+    refreshToken =
+        tokenService.generateRefreshToken(
+            7301L, 42L, Role.AGENT, "5f0c6a4e-8d2b-4c1e-9a57-3b8e2d1f6c90");
+  }
+
+  @Benchmark
+  public String generateToken() {
+    return tokenService.generateToken(7301L, 42L, Role.AGENT);
+  }
+
+  @Benchmark
+  public TokenService.RefreshTokenClaims parseRefreshToken() {
+    return tokenService.parseRefreshToken(refreshToken);
+  }
+}
@@ -6,6 +6,7 @@
  */
 package com.agentpassvault;
 
+import com.agentpassvault.config.RequestWaitProperties;
 import com.agentpassvault.config.VaultUiProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -13,7 +14,7 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableConfigurationProperties(VaultUiProperties.class)
+@EnableConfigurationProperties({VaultUiProperties.class, RequestWaitProperties.class})
 @EnableScheduling
 public class AgentPassVaultApplication {
 
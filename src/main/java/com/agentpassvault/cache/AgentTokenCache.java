@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.cache;
+
+import com.agentpassvault.model.Role;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, TTL-evicting cache of verified agent app tokens. Maps a tenant and app token hash to
+ * the identity needed to mint JWTs, so repeated agent logins do not hit the database.
+ */
+@Component
+public class AgentTokenCache implements CacheInvalidationListener {
+
+  private static final String CACHE_NAME = "agentToken";
+
+  private final Cache<Key, AgentIdentity> cache;
+  private final CacheInvalidationPublisher invalidationPublisher;
+
+  public AgentTokenCache(
+      @Value("${agentpassvault.cache.agent-token.max-size}") long maxSize,
+      @Value("${agentpassvault.cache.agent-token.ttl}") Duration ttl,
+      MeterRegistry meterRegistry,
+      CacheInvalidationPublisher invalidationPublisher) {
+    this.invalidationPublisher = invalidationPublisher;
+    this.cache =
+        Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME + "Cache");
+  }
+
+  /** Returns the cached identity, or loads it. Failed lookups are not cached. */
+  public Optional<AgentIdentity> get(
+      Long tenantId, String tokenHash, Supplier<Optional<AgentIdentity>> loader) {
+    return Optional.ofNullable(
+        cache.get(new Key(tenantId, tokenHash), key -> loader.get().orElse(null)));
+  }
+
+  public void evict(Long tenantId, String tokenHash) {
+    if (tokenHash == null) {
+      return;
+    }
+    CacheEvictions.evictNowAndAfterCompletion(() -> invalidateLocally(tenantId, tokenHash));
+    invalidationPublisher.publish(CACHE_NAME, tenantId, tokenHash);
+  }
+
+  public void evictTenant(Long tenantId) {
+    CacheEvictions.evictNowAndAfterCompletion(() -> invalidateLocally(tenantId, null));
+    invalidationPublisher.publish(CACHE_NAME, tenantId, null);
+  }
+
+  @Override
+  public String cacheName() {
+    return CACHE_NAME;
+  }
+
+  @Override
+  public void invalidateLocally(Long tenantId, String tokenHash) {
+    if (tokenHash == null) {
+      cache.asMap().keySet().removeIf(key -> key.tenantId().equals(tenantId));
+    } else {
+      cache.invalidate(new Key(tenantId, tokenHash));
+    }
+  }
+
+  public record AgentIdentity(Long userId, Long tenantId, Role role) {}
+
+  private record Key(Long tenantId, String tokenHash) {}
+}
@@ -0,0 +1,16 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.cache;
+
+/** A node-local cache that can apply invalidations published by other nodes. */
+public interface CacheInvalidationListener {
+
+  String cacheName();
+
+  /** Drops the entry for {@code key}, or every entry of the tenant when {@code key} is null. */
+  void invalidateLocally(Long tenantId, String key);
+}
@@ -0,0 +1,20 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.cache;
+
+/**
+ * Tells the other nodes of a deployment to drop cache entries. Publishing does not touch the local
+ * cache; callers evict locally themselves.
+ */
+public interface CacheInvalidationPublisher {
+
+  /**
+   * @param key the entry to drop, or {@code null} to drop everything the cache holds for the
+   *     tenant
+   */
+  void publish(String cacheName, Long tenantId, String key);
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.cache;
+
+import com.agentpassvault.security.AgentPassVaultAuthentication;
+import com.agentpassvault.security.TokenHasher;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of verified bearer tokens. Maps the SHA-256 of a raw JWT to the authentication
+ * built from it, so a token presented again skips signature verification and claim conversion.
+ * Each entry expires at its token's {@code exp}. Cached authentications are shared between
+ * requests and must not be modified.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+  private static final String CACHE_NAME = "jwtAuthentication";
+
+  private final Cache<String, AgentPassVaultAuthentication> cache;
+
+  public JwtAuthenticationCache(
+      @Value("${agentpassvault.cache.jwt.max-size}") long maxSize, MeterRegistry meterRegistry) {
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new UntilTokenExpiry())
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME + "Cache");
+  }
+
+  /** Returns the cached authentication for {@code token}, or verifies it; failures are not kept. */
+  public AgentPassVaultAuthentication get(
+      String token, Function<String, AgentPassVaultAuthentication> verifier) {
+    return cache.get(TokenHasher.sha256(token), key -> verifier.apply(token));
+  }
+
+  // Tokens without an expiry are not kept at all
+  private static final class UntilTokenExpiry
+      implements Expiry<String, AgentPassVaultAuthentication> {
+
+    @Override
+    public long expireAfterCreate(
+        String key, AgentPassVaultAuthentication value, long currentTime) {
+      Instant expiresAt = value.getJwt().getExpiresAt();
+      if (expiresAt == null) {
+        return 0;
+      }
+      return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String key, AgentPassVaultAuthentication value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+
+    @Override
+    public long expireAfterRead(
+        String key, AgentPassVaultAuthentication value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** For single-node deployments: local evictions are all there is, so nothing is published. */
+@Component
+@ConditionalOnProperty(
+    prefix = "agentpassvault.cache.invalidation",
+    name = "mode",
+    havingValue = "local")
+public class LocalCacheInvalidationPublisher implements CacheInvalidationPublisher {
+
+  @Override
+  public void publish(String cacheName, Long tenantId, String key) {}
+}
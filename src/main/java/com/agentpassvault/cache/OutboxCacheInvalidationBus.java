@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.cache;
+
+import com.agentpassvault.model.CacheInvalidationEvent;
+import com.agentpassvault.repository.CacheInvalidationEventRepository;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Default {@link CacheInvalidationPublisher}: invalidations are rows in {@code
+ * cache_invalidation_events}, inserted in the caller's transaction so they become visible exactly
+ * when the change they describe commits. Every node polls the table and applies other nodes'
+ * events to its local caches.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    prefix = "agentpassvault.cache.invalidation",
+    name = "mode",
+    havingValue = "outbox",
+    matchIfMissing = true)
+public class OutboxCacheInvalidationBus implements CacheInvalidationPublisher {
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private final CacheInvalidationEventRepository repository;
+  // Resolved lazily: the caches themselves depend on this publisher
+  private final ObjectProvider<CacheInvalidationListener> listeners;
+  private final long graceSeconds;
+  private final long retentionSeconds;
+  private final ReentrantLock pollLock = new ReentrantLock();
+
+  private long cursor = -1;
+  private Set<Long> seen = Set.of();
+
+  public OutboxCacheInvalidationBus(
+      CacheInvalidationEventRepository repository,
+      ObjectProvider<CacheInvalidationListener> listeners,
+      @Value("${agentpassvault.cache.invalidation.grace}") Duration grace,
+      @Value("${agentpassvault.cache.invalidation.retention}") Duration retention) {
+    this.repository = repository;
+    this.listeners = listeners;
+    this.graceSeconds = grace.toSeconds();
+    this.retentionSeconds = retention.toSeconds();
+  }
+
+  @Override
+  public void publish(String cacheName, Long tenantId, String key) {
+    repository.save(new CacheInvalidationEvent(nodeId, cacheName, tenantId, key));
+  }
+
+  /**
+   * Applies events committed by other nodes since the last poll. Events inside the replay window
+   * come back on every poll; the ids seen last time keep them from being applied twice.
+   */
+  @Scheduled(fixedDelayString = "${agentpassvault.cache.invalidation.poll-interval-ms}")
+  public void poll() {
+    // A lock rather than synchronized: the poll queries MySQL and may run on a virtual thread
+    pollLock.lock();
+    try {
+      if (cursor < 0) {
+        // Older events predate this node's caches; recent ones are still inside the replay window
+        cursor = repository.findMaxId();
+      }
+
+      List<CacheInvalidationEvent> events = repository.findPending(cursor, graceSeconds);
+      Set<Long> polled = new HashSet<>(events.size());
+      for (CacheInvalidationEvent event : events) {
+        polled.add(event.getId());
+        cursor = Math.max(cursor, event.getId());
+        if (seen.contains(event.getId()) || nodeId.equals(event.getOriginNode())) {
+          continue;
+        }
+        listeners
+            .orderedStream()
+            .filter(listener -> listener.cacheName().equals(event.getCacheName()))
+            .forEach(
+                listener -> listener.invalidateLocally(event.getTenantId(), event.getCacheKey()));
+      }
+      seen = polled;
+    } finally {
+      pollLock.unlock();
+    }
+  }
+
+  // Run every hour
+  @Scheduled(fixedDelay = 3600000)
+  @Transactional
+  public void cleanup() {
+    int deleted = repository.deleteOlderThan(retentionSeconds);
+    log.debug("Deleted {} cache invalidation events", deleted);
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.cache;
+
+import com.agentpassvault.dto.SecretResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Size-bounded cache of secrets as returned to admins: name, metadata, schema and ciphertext. The
+ * server never holds plaintext, so nothing cached here is more sensitive than the database row.
+ *
+ * <p>Entries are weighed by their approximate heap size. Besides the global bound, each tenant has
+ * its own cap; once a tenant reaches it, further secrets of that tenant are served uncached
+ * instead of evicting other tenants' entries.
+ */
+@Component
+public class SecretCache implements CacheInvalidationListener {
+
+  private static final String CACHE_NAME = "secret";
+
+  private final Cache<Key, SecretResponse> cache;
+  private final CacheInvalidationPublisher invalidationPublisher;
+  private final long tenantMaxWeight;
+  private final Map<Long, AtomicLong> tenantWeights = new ConcurrentHashMap<>();
+  // Bumped on every eviction in a tenant so a load racing with a write does not re-insert the old
+  // row; other tenants' loads are unaffected
+  private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+  private final Counter rejected;
+
+  public SecretCache(
+      @Value("${agentpassvault.cache.secret.max-weight}") DataSize maxWeight,
+      @Value("${agentpassvault.cache.secret.tenant-max-weight}") DataSize tenantMaxWeight,
+      @Value("${agentpassvault.cache.secret.ttl}") Duration ttl,
+      MeterRegistry meterRegistry,
+      CacheInvalidationPublisher invalidationPublisher) {
+    this.invalidationPublisher = invalidationPublisher;
+    this.tenantMaxWeight = tenantMaxWeight.toBytes();
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumWeight(maxWeight.toBytes())
+            .weigher((Key key, SecretResponse value) -> weigh(value))
+            .expireAfterWrite(ttl)
+            // Synchronous, so the per-tenant totals are current when admit() reads them
+            .executor(Runnable::run)
+            .removalListener(
+                (Key key, SecretResponse value, RemovalCause cause) -> {
+                  if (key != null && value != null) {
+                    release(key.tenantId(), weigh(value));
+                  }
+                })
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME + "Cache");
+    this.rejected =
+        Counter.builder("agentpassvault.cache.secret.rejected")
+            .description("Secrets served uncached because their tenant reached its cache cap")
+            .register(meterRegistry);
+  }
+
+  /** Returns the cached secret, or loads it. Missing secrets are not cached. */
+  public Optional<SecretResponse> get(
+      Long tenantId, Long secretId, Supplier<Optional<SecretResponse>> loader) {
+    Key key = new Key(tenantId, secretId);
+    SecretResponse cached = cache.getIfPresent(key);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+
+    long loadedAt = generation(tenantId).get();
+    Optional<SecretResponse> loaded = loader.get();
+    loaded.ifPresent(value -> admit(key, value, loadedAt));
+    return loaded;
+  }
+
+  public void evict(Long tenantId, Long secretId) {
+    String key = secretId.toString();
+    CacheEvictions.evictNowAndAfterCompletion(() -> invalidateLocally(tenantId, key));
+    invalidationPublisher.publish(CACHE_NAME, tenantId, key);
+  }
+
+  public void evictTenant(Long tenantId) {
+    CacheEvictions.evictNowAndAfterCompletion(() -> invalidateLocally(tenantId, null));
+    invalidationPublisher.publish(CACHE_NAME, tenantId, null);
+  }
+
+  @Override
+  public String cacheName() {
+    return CACHE_NAME;
+  }
+
+  @Override
+  public void invalidateLocally(Long tenantId, String secretId) {
+    // Bumped before removing, so a load admitted after the removal sees the new generation
+    generation(tenantId).incrementAndGet();
+    if (secretId == null) {
+      cache.asMap().keySet().removeIf(key -> key.tenantId().equals(tenantId));
+      tenantWeights.remove(tenantId);
+    } else {
+      cache.invalidate(new Key(tenantId, Long.valueOf(secretId)));
+    }
+  }
+
+  private void admit(Key key, SecretResponse value, long loadedAt) {
+    int weight = weigh(value);
+    AtomicLong tenantWeight =
+        tenantWeights.computeIfAbsent(key.tenantId(), id -> new AtomicLong());
+    if (tenantWeight.addAndGet(weight) > tenantMaxWeight) {
+      release(key.tenantId(), weight);
+      rejected.increment();
+      return;
+    }
+    // Checked under the entry's lock, so an eviction cannot slip in between the check and the put
+    AtomicLong generation = generation(key.tenantId());
+    SecretResponse admitted =
+        cache
+            .asMap()
+            .compute(key, (k, existing) -> generation.get() == loadedAt ? value : existing);
+    if (admitted != value) {
+      release(key.tenantId(), weight);
+    }
+  }
+
+  private AtomicLong generation(Long tenantId) {
+    return generations.computeIfAbsent(tenantId, id -> new AtomicLong());
+  }
+
+  private void release(Long tenantId, int weight) {
+    AtomicLong tenantWeight = tenantWeights.get(tenantId);
+    if (tenantWeight != null) {
+      tenantWeight.addAndGet(-weight);
+    }
+  }
+
+  // Rough heap footprint: two bytes per char plus fixed object overheads
+  private static int weigh(SecretResponse value) {
+    long size =
+        64
+            + sizeOf(value.secretId())
+            + sizeOf(value.name())
+            + sizeOf(value.encryptedValue())
+            + sizeOf(value.metadata())
+            + sizeOf(value.schema());
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  private static long sizeOf(Object value) {
+    if (value instanceof CharSequence text) {
+      return 40 + 2L * text.length();
+    }
+    if (value instanceof Map<?, ?> map) {
+      long size = 48;
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        size += 32 + sizeOf(entry.getKey()) + sizeOf(entry.getValue());
+      }
+      return size;
+    }
+    if (value instanceof Collection<?> values) {
+      long size = 40;
+      for (Object element : values) {
+        size += 8 + sizeOf(element);
+      }
+      return size;
+    }
+    return 16;
+  }
+
+  private record Key(Long tenantId, Long secretId) {}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Admits at most as many threads to the pool as it has connections. With virtual threads every
+ * request can ask for a connection at once; the rest wait here in FIFO order on a semaphore, which
+ * parks a virtual thread cheaply, instead of all contending inside the pool. The permit is returned
+ * when the connection is closed.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+  private final Semaphore permits;
+  private final long acquireTimeoutMillis;
+  private final Timer permitWait;
+
+  public ConnectionLimitingDataSource(
+      DataSource target, int maxConnections, Duration acquireTimeout, MeterRegistry meterRegistry) {
+    super(target);
+    this.permits = new Semaphore(maxConnections, true);
+    this.acquireTimeoutMillis = acquireTimeout.toMillis();
+    this.permitWait =
+        Timer.builder("agentpassvault.datasource.permit.wait")
+            .description("Time spent waiting for a connection permit")
+            .register(meterRegistry);
+    Gauge.builder("agentpassvault.datasource.permit.waiting", permits, Semaphore::getQueueLength)
+        .description("Threads waiting for a connection permit")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquirePermit();
+    try {
+      return releasingPermitOnClose(super.getConnection());
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    acquirePermit();
+    try {
+      return releasingPermitOnClose(super.getConnection(username, password));
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private void acquirePermit() throws SQLException {
+    long start = System.nanoTime();
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+    } finally {
+      permitWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    if (!acquired) {
+      throw new SQLTransientConnectionException(
+          "Connection is not available, request timed out after " + acquireTimeoutMillis + "ms");
+    }
+  }
+
+  private Connection releasingPermitOnClose(Connection connection) {
+    AtomicBoolean released = new AtomicBoolean();
+    return (Connection)
+        Proxy.newProxyInstance(
+            ConnectionLimitingDataSource.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            (proxy, method, args) ->
+                switch (method.getName()) {
+                  case "equals" -> proxy == args[0];
+                  case "hashCode" -> System.identityHashCode(proxy);
+                  case "close" -> {
+                    try {
+                      yield invoke(connection, method, args);
+                    } finally {
+                      if (released.compareAndSet(false, true)) {
+                        permits.release();
+                      }
+                    }
+                  }
+                  default -> invoke(connection, method, args);
+                });
+  }
+
+  private static Object invoke(Connection target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getTargetException();
+    }
+  }
+}
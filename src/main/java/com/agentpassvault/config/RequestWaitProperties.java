@@ -0,0 +1,20 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.config;
+
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/** Limits for clients waiting on a request's status (long-poll and event stream). */
+@ConfigurationProperties(prefix = "agentpassvault.requests.wait")
+@Validated
+public record RequestWaitProperties(
+    @NotNull Duration defaultTimeout,
+    @NotNull Duration maxTimeout,
+    @NotNull Duration streamTimeout) {}
@@ -6,8 +6,10 @@
  */
 package com.agentpassvault.config;
 
+import com.agentpassvault.controller.SecretController;
+import com.agentpassvault.security.CachingJwtAuthenticationManager;
 import com.agentpassvault.security.IdempotencyFilter;
-import com.agentpassvault.security.JwtConverter;
+import jakarta.servlet.DispatcherType;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -30,7 +32,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 @RequiredArgsConstructor
 public class SecurityConfig {
 
-  private final JwtConverter jwtConverter;
+  private final CachingJwtAuthenticationManager jwtAuthenticationManager;
   private final IdempotencyFilter idempotencyFilter;
   private final VaultUiProperties vaultUiProperties;
 
@@ -41,6 +43,10 @@ public class SecurityConfig {
         .authorizeHttpRequests(
             auth ->
                 auth.requestMatchers(HttpMethod.OPTIONS, "/api/**")
+                    .permitAll()
+                    // Long-poll and event stream results are dispatched again once ready; the
+                    // original request was already authorized
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC)
                     .permitAll()
                     .requestMatchers(
                         "/api/v1/auth/register",
@@ -59,7 +65,7 @@ public class SecurityConfig {
                     .anyRequest()
                     .authenticated())
         .oauth2ResourceServer(
-            oauth2 -> oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtConverter)))
+            oauth2 -> oauth2.jwt(jwt -> jwt.authenticationManager(jwtAuthenticationManager)))
         .addFilterAfter(idempotencyFilter, BearerTokenAuthenticationFilter.class);
     return http.build();
   }
@@ -72,7 +78,7 @@ public class SecurityConfig {
     configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
     configuration.setAllowedHeaders(
         List.of("Authorization", "Content-Type", "Idempotency-Key", "X-Requested-With"));
-    configuration.setExposedHeaders(List.of("Location"));
+    configuration.setExposedHeaders(List.of("Location", SecretController.NEXT_CURSOR_HEADER));
 
     UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
     source.registerCorsConfiguration("/api/**", configuration);
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Extras for {@code spring.threads.virtual.enabled=true}, under which Spring Boot serves requests
+ * and runs {@code @Scheduled} tasks on virtual threads. Connection requests are then gated by the
+ * pool size (see {@link ConnectionLimitingDataSource}) and pinned virtual threads are reported.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+  @Bean
+  static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource hikari) {
+          return new ConnectionLimitingDataSource(
+              hikari,
+              hikari.getMaximumPoolSize(),
+              Duration.ofMillis(hikari.getConnectionTimeout()),
+              meterRegistry.getObject());
+        }
+        return bean;
+      }
+    };
+  }
+
+  @Bean
+  VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+      MeterRegistry meterRegistry,
+      @Value("${agentpassvault.virtual-threads.pinned-threshold}") Duration threshold) {
+    return new VirtualThreadPinningMonitor(meterRegistry, threshold);
+  }
+}
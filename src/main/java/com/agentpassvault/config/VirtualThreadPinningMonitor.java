@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Streams the JDK's {@code jdk.VirtualThreadPinned} events into a timer. A virtual thread is pinned
+ * when it blocks inside {@code synchronized} or native code and so keeps its carrier thread; a
+ * rising count under load points at code that defeats virtual threads.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+  private final Timer pinned;
+  private final Duration threshold;
+  private RecordingStream stream;
+
+  public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+    this.threshold = threshold;
+    this.pinned =
+        Timer.builder("agentpassvault.virtual-threads.pinned")
+            .description("Virtual threads that blocked while pinned to their carrier")
+            .register(meterRegistry);
+  }
+
+  @Override
+  public synchronized void start() {
+    stream = new RecordingStream();
+    stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    stream.onEvent(PINNED_EVENT, this::record);
+    stream.startAsync();
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (stream != null) {
+      stream.close();
+      stream = null;
+    }
+  }
+
+  @Override
+  public synchronized boolean isRunning() {
+    return stream != null;
+  }
+
+  private void record(RecordedEvent event) {
+    pinned.record(event.getDuration());
+    if (log.isDebugEnabled()
+        && event.getStackTrace() != null
+        && !event.getStackTrace().getFrames().isEmpty()) {
+      RecordedFrame top = event.getStackTrace().getFrames().getFirst();
+      log.debug(
+          "Virtual thread pinned for {} at {}.{}",
+          event.getDuration(),
+          top.getMethod().getType().getName(),
+          top.getMethod().getName());
+    }
+  }
+}
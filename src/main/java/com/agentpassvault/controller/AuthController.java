@@ -66,6 +66,13 @@ public class AuthController {
     return authService.refreshToken(request.refreshToken());
   }
 
+  @PostMapping("/logout")
+  public void logout(
+      AgentPassVaultAuthentication authentication,
+      @RequestBody(required = false) LogoutRequest request) {
+    authService.logout(authentication, request != null ? request.refreshToken() : null);
+  }
+
   @PostMapping("/change-password")
   public void changePassword(
       AgentPassVaultAuthentication authentication,
@@ -6,8 +6,12 @@
  */
 package com.agentpassvault.controller;
 
+import com.agentpassvault.dto.BatchCreateLeaseRequest;
+import com.agentpassvault.dto.BatchCreateLeaseResponse;
 import com.agentpassvault.dto.CreateLeaseRequest;
 import com.agentpassvault.dto.LeaseResponse;
+import com.agentpassvault.dto.RevokeLeasesRequest;
+import com.agentpassvault.dto.RevokeLeasesResponse;
 import com.agentpassvault.security.AgentPassVaultAuthentication;
 import com.agentpassvault.service.SecretService;
 import jakarta.validation.Valid;
@@ -18,14 +22,14 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
-@RequestMapping("/api/v1/secrets/{secretId}/leases")
+@RequestMapping("/api/v1/secrets/{secretId}")
 @RequiredArgsConstructor
 @Validated
 public class LeaseController {
 
   private final SecretService secretService;
 
-  @GetMapping
+  @GetMapping("/leases")
   @PreAuthorize("hasRole('ADMIN')")
   public List<LeaseResponse> listLeases(
       AgentPassVaultAuthentication authentication,
@@ -34,7 +38,7 @@ public class LeaseController {
     return secretService.listLeases(authentication.getTenantId(), secretId, agentId);
   }
 
-  @PostMapping
+  @PostMapping("/leases")
   @PreAuthorize("hasRole('ADMIN')")
   public void createLease(
       AgentPassVaultAuthentication authentication,
@@ -43,12 +47,31 @@ public class LeaseController {
     secretService.createLease(authentication.getTenantId(), secretId, request);
   }
 
-  @DeleteMapping("/{agentId}")
+  @PostMapping("/leases:batch")
   @PreAuthorize("hasRole('ADMIN')")
-  public void revokeLease(
+  public BatchCreateLeaseResponse createLeases(
+      AgentPassVaultAuthentication authentication,
+      @PathVariable Long secretId,
+      @Valid @RequestBody BatchCreateLeaseRequest request) {
+    return secretService.createLeases(authentication.getTenantId(), secretId, request.leases());
+  }
+
+  @DeleteMapping("/leases/{agentId}")
+  @PreAuthorize("hasRole('ADMIN')")
+  public RevokeLeasesResponse revokeLease(
       AgentPassVaultAuthentication authentication,
       @PathVariable Long secretId,
       @PathVariable Long agentId) {
-    secretService.deleteLease(authentication.getTenantId(), secretId, agentId);
+    return secretService.deleteLease(authentication.getTenantId(), secretId, agentId);
+  }
+
+  @PostMapping("/leases:revoke")
+  @PreAuthorize("hasRole('ADMIN')")
+  public RevokeLeasesResponse revokeLeases(
+      AgentPassVaultAuthentication authentication,
+      @PathVariable Long secretId,
+      @Valid @RequestBody RevokeLeasesRequest request) {
+    List<Long> agentIds = request.agentIds().stream().map(Long::valueOf).toList();
+    return secretService.deleteLeases(authentication.getTenantId(), secretId, agentIds);
   }
 }
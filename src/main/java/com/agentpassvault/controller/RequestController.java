@@ -7,15 +7,22 @@
 package com.agentpassvault.controller;
 
 import com.agentpassvault.dto.*;
+import com.agentpassvault.model.RequestStatus;
+import com.agentpassvault.model.RequestType;
 import com.agentpassvault.security.AgentPassVaultAuthentication;
 import com.agentpassvault.service.RequestService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import java.time.Duration;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/v1/requests")
@@ -23,12 +30,37 @@ import org.springframework.web.bind.annotation.*;
 @Validated
 public class RequestController {
 
+  private static final int DEFAULT_PAGE_SIZE = 100;
+
   private final RequestService requestService;
 
   @GetMapping
   @PreAuthorize("hasRole('ADMIN')")
-  public List<RequestResponse> listRequests(AgentPassVaultAuthentication authentication) {
-    return requestService.listRequests(authentication.getTenantId());
+  public ResponseEntity<List<RequestResponse>> listRequests(
+      AgentPassVaultAuthentication authentication,
+      @RequestParam(required = false) RequestStatus status,
+      @RequestParam(required = false) RequestType type,
+      @RequestParam(required = false) Long requesterId,
+      @RequestParam(defaultValue = "false") boolean includeSecretMetadata,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) Long cursor) {
+    RequestFilter filter = new RequestFilter(status, type, requesterId, includeSecretMetadata);
+    // Without paging parameters every matching request is returned, as before
+    if (limit == null && cursor == null) {
+      return ResponseEntity.ok(requestService.listRequests(authentication.getTenantId(), filter));
+    }
+
+    RequestPage page =
+        requestService.listRequestsPage(
+            authentication.getTenantId(),
+            filter,
+            cursor,
+            limit != null ? limit : DEFAULT_PAGE_SIZE);
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (page.nextCursor() != null) {
+      response.header(SecretController.NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    return response.body(page.items());
   }
 
   @PostMapping
@@ -46,6 +78,23 @@ public class RequestController {
     return requestService.getRequest(authentication.getTenantId(), id);
   }
 
+  @GetMapping("/{id}/wait")
+  @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
+  public DeferredResult<RequestResponse> waitForRequest(
+      AgentPassVaultAuthentication authentication,
+      @PathVariable Long id,
+      @RequestParam(required = false) @Min(1) Integer timeout) {
+    return requestService.awaitRequest(
+        authentication.getTenantId(), id, timeout != null ? Duration.ofSeconds(timeout) : null);
+  }
+
+  @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
+  public SseEmitter streamRequestEvents(
+      AgentPassVaultAuthentication authentication, @PathVariable Long id) {
+    return requestService.streamRequest(authentication.getTenantId(), id);
+  }
+
   @DeleteMapping("/{id}")
   @PreAuthorize("hasRole('AGENT')")
   public ResponseEntity<Void> abandonRequest(
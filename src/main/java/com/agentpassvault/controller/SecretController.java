@@ -10,11 +10,18 @@ import com.agentpassvault.dto.*;
 import com.agentpassvault.security.AgentPassVaultAuthentication;
 import com.agentpassvault.service.SecretService;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
 
 @RestController
 @RequestMapping("/api/v1/secrets")
@@ -22,12 +29,43 @@ import org.springframework.web.bind.annotation.*;
 @Validated
 public class SecretController {
 
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  private static final int DEFAULT_PAGE_SIZE = 100;
+
   private final SecretService secretService;
+  private final ObjectMapper objectMapper;
 
   @GetMapping
   @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
-  public List<SecretDetailsResponse> listSecrets(AgentPassVaultAuthentication authentication) {
-    return secretService.listAllSecretsForPrincipal(authentication);
+  public ResponseEntity<List<SecretDetailsResponse>> listSecrets(
+      AgentPassVaultAuthentication authentication,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) Long cursor) {
+    // Without paging parameters the whole tenant is returned, as before
+    if (limit == null && cursor == null) {
+      return ResponseEntity.ok(secretService.listAllSecretsForPrincipal(authentication));
+    }
+
+    SecretDetailsPage page =
+        secretService.listSecretsPageForPrincipal(
+            authentication, cursor, limit != null ? limit : DEFAULT_PAGE_SIZE);
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (page.nextCursor() != null) {
+      response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    return response.body(page.items());
+  }
+
+  @GetMapping(params = "format=ndjson")
+  @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
+  public ResponseEntity<StreamingResponseBody> streamSecrets(
+      AgentPassVaultAuthentication authentication) {
+    StreamingResponseBody body =
+        out ->
+            secretService.streamSecretsForPrincipal(
+                authentication, chunk -> writeNdjsonChunk(out, chunk));
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
   }
 
   @PostMapping
@@ -62,8 +100,25 @@ public class SecretController {
 
   @PostMapping("/search")
   @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
-  public List<SecretMetadataResponse> searchSecrets(
+  public ResponseEntity<List<SecretMetadataResponse>> searchSecrets(
       AgentPassVaultAuthentication authentication, @RequestBody SearchSecretRequest request) {
-    return secretService.searchSecrets(authentication.getTenantId(), request);
+    SecretMetadataPage page = secretService.searchSecrets(authentication.getTenantId(), request);
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (page.nextCursor() != null) {
+      response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    return response.body(page.items());
+  }
+
+  private void writeNdjsonChunk(OutputStream out, List<SecretDetailsResponse> chunk) {
+    try {
+      for (SecretDetailsResponse row : chunk) {
+        out.write(objectMapper.writeValueAsBytes(row));
+        out.write('\n');
+      }
+      out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 }
@@ -0,0 +1,17 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record BatchCreateLeaseRequest(
+    @NotEmpty(message = "At least one lease is required")
+        @Size(max = 500, message = "At most 500 leases can be created at once")
+        List<@Valid CreateLeaseRequest> leases) {}
@@ -0,0 +1,21 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.dto;
+
+import java.util.List;
+
+public record BatchCreateLeaseResponse(List<Result> results) {
+
+  /** Outcome of the entry at {@code index} in the request. */
+  public record Result(int index, String agentId, String leaseId, Status status, String error) {}
+
+  public enum Status {
+    CREATED,
+    UPDATED,
+    FAILED
+  }
+}
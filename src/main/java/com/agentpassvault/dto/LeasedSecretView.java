@@ -0,0 +1,20 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+/** Secret metadata joined with the ciphertext of one agent's lease, read in a single query. */
+public record LeasedSecretView(
+    Long secretId,
+    String name,
+    String encryptedData,
+    Map<String, Object> metadata,
+    Map<String, Object> schema,
+    Instant createdAt,
+    Instant updatedAt) {}
@@ -0,0 +1,10 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.dto;
+
+/** {@code refreshToken} is optional; when given, its whole token family is revoked as well. */
+public record LogoutRequest(String refreshToken) {}
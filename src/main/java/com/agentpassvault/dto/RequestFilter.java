@@ -0,0 +1,17 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.dto;
+
+import com.agentpassvault.model.RequestStatus;
+import com.agentpassvault.model.RequestType;
+
+/**
+ * Optional criteria for listing requests; null fields match everything. The requested secret's
+ * metadata is only included when {@code includeSecretMetadata} is set.
+ */
+public record RequestFilter(
+    RequestStatus status, RequestType type, Long requesterId, boolean includeSecretMetadata) {}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.dto;
+
+import com.agentpassvault.model.RequestStatus;
+import com.agentpassvault.model.RequestType;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One row of a request listing, read as a projection. Carries the requested secret's name but not
+ * its metadata, so listing requests never loads secret JSON.
+ */
+public record RequestSummaryView(
+    Long requestId,
+    Long requesterId,
+    RequestStatus status,
+    RequestType type,
+    String name,
+    String context,
+    Map<String, Object> requiredMetadata,
+    List<String> requiredFieldsInSecretValue,
+    Long secretId,
+    String secretName,
+    Long mappedSecretId,
+    String rejectionReason,
+    Instant createdAt,
+    Instant updatedAt) {}
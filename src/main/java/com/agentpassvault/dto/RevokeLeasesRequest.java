@@ -0,0 +1,18 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record RevokeLeasesRequest(
+    @NotEmpty(message = "At least one agent ID is required")
+        @Size(max = 500, message = "At most 500 agents can be revoked at once")
+        List<@Pattern(regexp = "^[0-9]+$", message = "Agent ID must be numeric") String>
+            agentIds) {}
@@ -8,4 +8,22 @@ package com.agentpassvault.dto;
 
 import java.util.Map;
 
-public record SearchSecretRequest(String name, Map<String, Object> metadata) {}
+/**
+ * Without {@code limit} and {@code cursor} every match is returned in one response.
+ *
+ * @param limit maximum number of results per page, best name matches first; defaults to 100 when
+ *     only a cursor is sent. When more results exist the response carries an {@code
+ *     X-Next-Cursor} header.
+ * @param cursor the {@code X-Next-Cursor} of the previous page, sent with the same criteria
+ */
+public record SearchSecretRequest(
+    String name, Map<String, Object> metadata, Integer limit, String cursor) {
+
+  public SearchSecretRequest(String name, Map<String, Object> metadata) {
+    this(name, metadata, null, null);
+  }
+
+  public SearchSecretRequest(String name, Map<String, Object> metadata, Integer limit) {
+    this(name, metadata, limit, null);
+  }
+}
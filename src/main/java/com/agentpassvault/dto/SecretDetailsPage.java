@@ -0,0 +1,15 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of secrets. {@code nextCursor} is the id of the last item and is null when there
+ * are no more rows.
+ */
+public record SecretDetailsPage(List<SecretDetailsResponse> items, String nextCursor) {}
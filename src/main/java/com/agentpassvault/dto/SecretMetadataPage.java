@@ -0,0 +1,15 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.dto;
+
+import java.util.List;
+
+/**
+ * One page of search results. {@code nextCursor} is null when there are no more matches; it is
+ * only meaningful together with the criteria that produced it.
+ */
+public record SecretMetadataPage(List<SecretMetadataResponse> items, String nextCursor) {}
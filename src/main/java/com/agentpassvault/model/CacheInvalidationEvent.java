@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Entity
+@Table(name = "cache_invalidation_events")
+@NoArgsConstructor
+public class CacheInvalidationEvent {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id")
+  private Long id;
+
+  // Set by the database so every node compares against the same clock
+  @Column(name = "created_at", insertable = false, updatable = false)
+  private Instant createdAt;
+
+  @Column(name = "origin_node", nullable = false)
+  private String originNode;
+
+  @Column(name = "cache_name", nullable = false)
+  private String cacheName;
+
+  @Column(name = "tenant_id", nullable = false)
+  private Long tenantId;
+
+  @Column(name = "cache_key")
+  private String cacheKey; // null invalidates the whole tenant
+
+  public CacheInvalidationEvent(
+      String originNode, String cacheName, Long tenantId, String cacheKey) {
+    this.originNode = originNode;
+    this.cacheName = cacheName;
+    this.tenantId = tenantId;
+    this.cacheKey = cacheKey;
+  }
+}
@@ -6,14 +6,19 @@
  */
 package com.agentpassvault.model;
 
+import io.hypersistence.utils.hibernate.type.json.JsonType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import java.time.Instant;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Type;
 
 @Data
 @Entity
@@ -26,8 +31,26 @@ public class IdempotencyRecord {
   @Column(name = "id")
   private String id; // TenantId + ":" + IdempotencyKey
 
-  @Column(name = "response_body", columnDefinition = "LONGTEXT")
-  private String responseBody;
+  @Enumerated(EnumType.STRING)
+  @Column(name = "state", nullable = false)
+  private IdempotencyState state;
+
+  // Raw response bytes, deflated when compressed is set
+  @Column(name = "response_body", columnDefinition = "LONGBLOB")
+  private byte[] responseBody;
+
+  @Column(name = "body_length", nullable = false)
+  private int bodyLength;
+
+  @Column(name = "compressed", nullable = false)
+  private boolean compressed;
+
+  @Column(name = "content_type")
+  private String contentType;
+
+  @Type(JsonType.class)
+  @Column(name = "response_headers", columnDefinition = "json")
+  private Map<String, String> responseHeaders;
 
   @Column(name = "response_status")
   private int responseStatus;
@@ -0,0 +1,12 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.model;
+
+public enum IdempotencyState {
+  PENDING,
+  COMPLETED
+}
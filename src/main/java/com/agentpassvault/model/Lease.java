@@ -13,8 +13,11 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import java.time.Instant;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
@@ -24,12 +27,16 @@ import org.hibernate.annotations.OnDeleteAction;
 @EqualsAndHashCode(callSuper = true)
 public class Lease extends BaseEntity {
 
-  @ManyToOne(fetch = FetchType.EAGER)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "secret_id", nullable = false)
   @OnDelete(action = OnDeleteAction.CASCADE)
   private Secret secret;
 
-  @ManyToOne(fetch = FetchType.EAGER)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "agent_id", nullable = false)
   @OnDelete(action = OnDeleteAction.CASCADE)
   private User agent;
@@ -37,9 +44,18 @@ public class Lease extends BaseEntity {
   @Column(name = "public_key", columnDefinition = "TEXT", nullable = false)
   private String publicKey;
 
+  @Setter(AccessLevel.NONE)
+  @Column(name = "public_key_fp", columnDefinition = "CHAR(64)", nullable = false)
+  private String publicKeyFingerprint;
+
   @Column(name = "encrypted_data", columnDefinition = "TEXT")
   private String encryptedData;
 
   @Column(name = "expiry")
   private Instant expiry;
+
+  public void setPublicKey(String publicKey) {
+    this.publicKey = publicKey;
+    this.publicKeyFingerprint = PublicKeyFingerprint.of(publicKey);
+  }
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Fixed-width fingerprint of a PEM public key, stored next to the key so lease lookups can use an
+ * index instead of comparing TEXT columns. Must stay in sync with {@code SHA2(public_key, 256)}
+ * used by the V13 backfill.
+ */
+public final class PublicKeyFingerprint {
+
+  private PublicKeyFingerprint() {}
+
+  public static String of(String publicKey) {
+    if (publicKey == null) {
+      return null;
+    }
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(publicKey.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 algorithm not found", e);
+    }
+  }
+}
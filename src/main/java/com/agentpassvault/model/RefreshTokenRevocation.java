@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Revokes the refresh tokens of one family when {@code familyId} is set; otherwise every token of
+ * the user, or of the whole tenant when {@code userId} is null, issued before {@code issuedBefore}.
+ */
+@Data
+@Entity
+@Table(name = "refresh_token_revocations")
+@NoArgsConstructor
+public class RefreshTokenRevocation {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id")
+  private Long id;
+
+  // Set by the database so every node compares against the same clock
+  @Column(name = "created_at", insertable = false, updatable = false)
+  private Instant createdAt;
+
+  @Column(name = "tenant_id", nullable = false)
+  private Long tenantId;
+
+  @Column(name = "user_id")
+  private Long userId;
+
+  @Column(name = "family_id")
+  private String familyId;
+
+  @Column(name = "issued_before")
+  private Instant issuedBefore;
+
+  @Column(name = "expires_at", nullable = false)
+  private Instant expiresAt;
+
+  public static RefreshTokenRevocation forFamily(
+      Long tenantId, String familyId, Instant expiresAt) {
+    RefreshTokenRevocation revocation = new RefreshTokenRevocation();
+    revocation.setTenantId(tenantId);
+    revocation.setFamilyId(familyId);
+    revocation.setExpiresAt(expiresAt);
+    return revocation;
+  }
+
+  public static RefreshTokenRevocation forTokensIssuedBefore(
+      Long tenantId, Long userId, Instant issuedBefore, Instant expiresAt) {
+    RefreshTokenRevocation revocation = new RefreshTokenRevocation();
+    revocation.setTenantId(tenantId);
+    revocation.setUserId(userId);
+    revocation.setIssuedBefore(issuedBefore);
+    revocation.setExpiresAt(expiresAt);
+    return revocation;
+  }
+}
@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 import org.hibernate.annotations.Type;
@@ -29,11 +30,15 @@ import org.hibernate.annotations.Type;
 @EqualsAndHashCode(callSuper = true)
 public class Request extends BaseEntity {
 
-  @ManyToOne(fetch = FetchType.EAGER)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "tenant_id", nullable = false)
   private Tenant tenant;
 
-  @ManyToOne(fetch = FetchType.EAGER)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "requester_id", nullable = false)
   @OnDelete(action = OnDeleteAction.CASCADE)
   private User requester;
@@ -68,6 +73,8 @@ public class Request extends BaseEntity {
   @Column(name = "requested_secret_id")
   private Long secretId;
 
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "requested_secret_id", insertable = false, updatable = false)
   private Secret secret;
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Revokes one access token when {@code tokenId} is set; otherwise every access token of the user,
+ * or of the whole tenant when {@code userId} is null, issued before {@code issuedBefore}.
+ */
+@Data
+@Entity
+@Table(name = "revoked_tokens")
+@NoArgsConstructor
+public class RevokedToken {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id")
+  private Long id;
+
+  // Set by the database so every node compares against the same clock
+  @Column(name = "created_at", insertable = false, updatable = false)
+  private Instant createdAt;
+
+  @Column(name = "tenant_id", nullable = false)
+  private Long tenantId;
+
+  @Column(name = "user_id")
+  private Long userId;
+
+  @Column(name = "token_id")
+  private String tokenId;
+
+  @Column(name = "issued_before")
+  private Instant issuedBefore;
+
+  @Column(name = "expires_at", nullable = false)
+  private Instant expiresAt;
+
+  public static RevokedToken forToken(
+      Long tenantId, Long userId, String tokenId, Instant expiresAt) {
+    RevokedToken revoked = new RevokedToken();
+    revoked.setTenantId(tenantId);
+    revoked.setUserId(userId);
+    revoked.setTokenId(tokenId);
+    revoked.setExpiresAt(expiresAt);
+    return revoked;
+  }
+
+  public static RevokedToken forTokensIssuedBefore(
+      Long tenantId, Long userId, Instant issuedBefore, Instant expiresAt) {
+    RevokedToken revoked = new RevokedToken();
+    revoked.setTenantId(tenantId);
+    revoked.setUserId(userId);
+    revoked.setIssuedBefore(issuedBefore);
+    revoked.setExpiresAt(expiresAt);
+    return revoked;
+  }
+}
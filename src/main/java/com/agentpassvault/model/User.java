@@ -15,8 +15,11 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import java.time.Instant;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
 
 @Data
 @Entity
@@ -24,7 +27,9 @@ import lombok.EqualsAndHashCode;
 @EqualsAndHashCode(callSuper = true)
 public class User extends BaseEntity {
 
-  @ManyToOne(fetch = FetchType.EAGER)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "tenant_id", nullable = false)
   private Tenant tenant;
 
@@ -59,9 +64,18 @@ public class User extends BaseEntity {
   @Column(name = "public_key", columnDefinition = "TEXT")
   private String publicKey;
 
+  @Setter(AccessLevel.NONE)
+  @Column(name = "public_key_fp", columnDefinition = "CHAR(64)")
+  private String publicKeyFingerprint;
+
   @Column(name = "totp_enabled", nullable = false)
   private boolean totpEnabled = false;
 
   @Column(name = "totp_secret")
   private String totpSecret;
+
+  public void setPublicKey(String publicKey) {
+    this.publicKey = publicKey;
+    this.publicKeyFingerprint = PublicKeyFingerprint.of(publicKey);
+  }
 }
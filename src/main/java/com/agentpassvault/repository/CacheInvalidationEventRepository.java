@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.repository;
+
+import com.agentpassvault.model.CacheInvalidationEvent;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CacheInvalidationEventRepository
+    extends JpaRepository<CacheInvalidationEvent, Long> {
+
+  /**
+   * Events past the cursor, plus every event of the last {@code graceSeconds}. Ids are assigned
+   * at insert but become visible at commit, so a row may appear behind a cursor that has already
+   * moved past it; the replay window picks those up.
+   */
+  @Query(
+      value =
+          "SELECT * FROM cache_invalidation_events "
+              + "WHERE id > :afterId "
+              + "OR created_at >= DATE_SUB(NOW(6), INTERVAL :graceSeconds SECOND) "
+              + "ORDER BY id",
+      nativeQuery = true)
+  List<CacheInvalidationEvent> findPending(
+      @Param("afterId") long afterId, @Param("graceSeconds") long graceSeconds);
+
+  @Query("SELECT COALESCE(MAX(e.id), 0) FROM CacheInvalidationEvent e")
+  long findMaxId();
+
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM cache_invalidation_events "
+              + "WHERE created_at < DATE_SUB(NOW(6), INTERVAL :retentionSeconds SECOND)",
+      nativeQuery = true)
+  int deleteOlderThan(@Param("retentionSeconds") long retentionSeconds);
+}
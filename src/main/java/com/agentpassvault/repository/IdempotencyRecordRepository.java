@@ -11,13 +11,99 @@ import java.time.Instant;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
-  void deleteByCreatedAtBefore(Instant threshold);
+  /** Deletes up to {@code limit} of the oldest rows created before {@code threshold}. */
+  @Transactional
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM idempotency_records WHERE created_at < :threshold "
+              + "ORDER BY created_at LIMIT :limit",
+      nativeQuery = true)
+  int deleteExpiredBatch(@Param("threshold") Instant threshold, @Param("limit") int limit);
+
+  /** Claims a new key. Returns 0 when a row for the key already exists. */
+  @Transactional
+  @Modifying
+  @Query(
+      value =
+          "INSERT IGNORE INTO idempotency_records (id, state, response_status, created_at) "
+              + "VALUES (:id, 'PENDING', 0, :createdAt)",
+      nativeQuery = true)
+  int reserve(@Param("id") String id, @Param("createdAt") Instant createdAt);
+
+  /**
+   * Claims a key whose previous owner went away (PENDING for too long) or whose response is past
+   * the retention window. Returns 0 when the row is still live.
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      value =
+          "UPDATE idempotency_records "
+              + "SET state = 'PENDING', response_body = NULL, response_status = 0, "
+              + "created_at = :now "
+              + "WHERE id = :id "
+              + "AND ((state = 'PENDING' AND created_at < :pendingCutoff) "
+              + "OR created_at < :retentionCutoff)",
+      nativeQuery = true)
+  int takeOver(
+      @Param("id") String id,
+      @Param("now") Instant now,
+      @Param("pendingCutoff") Instant pendingCutoff,
+      @Param("retentionCutoff") Instant retentionCutoff);
+
+  /** Deletes every record of one tenant; record ids start with {@code tenantId + ":"}. */
+  @Modifying
+  @Query(
+      value = "DELETE FROM idempotency_records WHERE id LIKE CONCAT(:prefix, '%')",
+      nativeQuery = true)
+  void deleteByIdStartingWith(@Param("prefix") String prefix);
+
+  @Transactional
+  @Modifying
+  @Query(
+      value = "DELETE FROM idempotency_records WHERE id = :id AND state = 'PENDING'",
+      nativeQuery = true)
+  void release(@Param("id") String id);
 
+  // Assignments run left to right, so state has to be switched last
   @Modifying
-  @Query("DELETE FROM IdempotencyRecord ir WHERE ir.id LIKE :prefix%")
-  void deleteByIdStartingWith(String prefix);
+  @Query(
+      value =
+          "INSERT INTO idempotency_records (id, state, response_body, body_length, compressed, "
+              + "content_type, response_headers, response_status, created_at) "
+              + "VALUES (:id, 'COMPLETED', :responseBody, :bodyLength, :compressed, "
+              + ":contentType, :responseHeaders, :responseStatus, :createdAt) AS new "
+              + "ON DUPLICATE KEY UPDATE "
+              + "response_body = IF(idempotency_records.state = 'PENDING', "
+              + "new.response_body, idempotency_records.response_body), "
+              + "body_length = IF(idempotency_records.state = 'PENDING', "
+              + "new.body_length, idempotency_records.body_length), "
+              + "compressed = IF(idempotency_records.state = 'PENDING', "
+              + "new.compressed, idempotency_records.compressed), "
+              + "content_type = IF(idempotency_records.state = 'PENDING', "
+              + "new.content_type, idempotency_records.content_type), "
+              + "response_headers = IF(idempotency_records.state = 'PENDING', "
+              + "new.response_headers, idempotency_records.response_headers), "
+              + "response_status = IF(idempotency_records.state = 'PENDING', "
+              + "new.response_status, idempotency_records.response_status), "
+              + "created_at = IF(idempotency_records.state = 'PENDING', "
+              + "new.created_at, idempotency_records.created_at), "
+              + "state = 'COMPLETED'",
+      nativeQuery = true)
+  void complete(
+      @Param("id") String id,
+      @Param("responseBody") byte[] responseBody,
+      @Param("bodyLength") int bodyLength,
+      @Param("compressed") boolean compressed,
+      @Param("contentType") String contentType,
+      @Param("responseHeaders") String responseHeaders,
+      @Param("responseStatus") int responseStatus,
+      @Param("createdAt") Instant createdAt);
 }
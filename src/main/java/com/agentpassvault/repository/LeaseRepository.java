@@ -6,10 +6,13 @@
  */
 package com.agentpassvault.repository;
 
+import com.agentpassvault.dto.LeasedSecretView;
 import com.agentpassvault.model.Lease;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -17,12 +20,33 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface LeaseRepository extends JpaRepository<Lease, Long> {
+  // Lease listings show the agent's name, so it is fetched in the same query
+  @EntityGraph(attributePaths = "agent")
   List<Lease> findBySecret_IdAndAgent_Id(Long secretId, Long agentId);
 
+  @EntityGraph(attributePaths = "agent")
   List<Lease> findBySecret_Id(Long secretId);
 
-  Optional<Lease> findBySecret_IdAndAgent_IdAndPublicKey(
-      Long secretId, Long agentId, String publicKey);
+  List<Lease> findBySecret_IdAndAgent_IdIn(Long secretId, Collection<Long> agentIds);
+
+  Optional<Lease> findBySecret_IdAndAgent_IdAndPublicKeyFingerprint(
+      Long secretId, Long agentId, String publicKeyFingerprint);
+
+  @Query(
+      "SELECT new com.agentpassvault.dto.LeasedSecretView(s.id, s.name, l.encryptedData, s.metadata, s.schema, s.createdAt, s.updatedAt) "
+          + "FROM Lease l JOIN l.secret s JOIN l.agent a "
+          + "WHERE s.id = :secretId AND s.tenant.id = :tenantId AND a.id = :agentId AND l.publicKeyFingerprint = a.publicKeyFingerprint")
+  Optional<LeasedSecretView> findLeasedSecret(Long tenantId, Long secretId, Long agentId);
+
+  @Modifying(flushAutomatically = true)
+  @Query("DELETE FROM Lease l WHERE l.secret.id = :secretId")
+  int deleteAllBySecretId(Long secretId);
+
+  @Modifying
+  @Query(
+      "DELETE FROM Lease l WHERE l.secret.id = :secretId AND l.secret.tenant.id = :tenantId "
+          + "AND l.agent.id IN :agentIds")
+  int deleteAllBySecretIdAndAgentIdIn(Long tenantId, Long secretId, Collection<Long> agentIds);
 
   @Modifying
   @Query("DELETE FROM Lease l WHERE l.secret.tenant.id = :tenantId")
@@ -37,7 +61,13 @@ public interface LeaseRepository extends JpaRepository<Lease, Long> {
       "SELECT l FROM Lease l JOIN FETCH l.secret JOIN FETCH l.agent WHERE l.secret.id IN :secretIds AND l.expiry > :timestamp")
   List<Lease> findAllBySecretIdInAndExpiresAtAfter(List<Long> secretIds, Instant timestamp);
 
+  @Query(
+      "SELECT l FROM Lease l JOIN FETCH l.secret JOIN FETCH l.agent WHERE l.agent.id = :agentId AND l.secret.id IN :secretIds AND l.expiry > :timestamp")
+  List<Lease> findAllByAgentIdAndSecretIdInAndExpiresAtAfter(
+      Long agentId, List<Long> secretIds, Instant timestamp);
+
   @Modifying
-  @Query("DELETE FROM Lease l WHERE l.agent.id = :agentId AND l.publicKey != :publicKey")
-  void deleteAllByAgentIdAndPublicKeyNot(Long agentId, String publicKey);
+  @Query(
+      "DELETE FROM Lease l WHERE l.agent.id = :agentId AND l.publicKeyFingerprint != :publicKeyFingerprint")
+  void deleteAllByAgentIdAndPublicKeyFingerprintNot(Long agentId, String publicKeyFingerprint);
 }
@@ -6,20 +6,41 @@
  */
 package com.agentpassvault.repository;
 
+import com.agentpassvault.dto.RequestSummaryView;
 import com.agentpassvault.model.Request;
+import com.agentpassvault.model.RequestStatus;
+import com.agentpassvault.model.RequestType;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface RequestRepository extends JpaRepository<Request, Long> {
-  @EntityGraph(attributePaths = {"requester", "tenant", "secret"})
-  List<Request> findAllByTenantId(Long tenantId);
+  // Null criteria match everything; with a status this walks idx_requests_tenant_status_id
+  @Query(
+      "SELECT new com.agentpassvault.dto.RequestSummaryView(r.id, r.requester.id, r.status, r.type, "
+          + "r.name, r.context, r.requiredMetadata, r.requiredFieldsInSecretValue, r.secretId, "
+          + "s.name, r.mappedSecretId, r.rejectionReason, r.createdAt, r.updatedAt) "
+          + "FROM Request r LEFT JOIN r.secret s "
+          + "WHERE r.tenant.id = :tenantId AND r.id > :afterId "
+          + "AND (:status IS NULL OR r.status = :status) "
+          + "AND (:type IS NULL OR r.type = :type) "
+          + "AND (:requesterId IS NULL OR r.requester.id = :requesterId) "
+          + "ORDER BY r.id")
+  List<RequestSummaryView> findSummaries(
+      Long tenantId,
+      RequestStatus status,
+      RequestType type,
+      Long requesterId,
+      Long afterId,
+      Limit limit);
 
-  @EntityGraph(attributePaths = {"requester", "tenant", "secret"})
+  @EntityGraph(attributePaths = "secret")
   Optional<Request> findByIdAndTenantId(Long id, Long tenantId);
 
   @Modifying
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.repository;
+
+import com.agentpassvault.model.RevokedToken;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+  List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+  /**
+   * Revocations past the cursor, plus every one of the last {@code graceSeconds}, for the same
+   * reason as {@link CacheInvalidationEventRepository#findPending}.
+   */
+  @Query(
+      value =
+          "SELECT * FROM revoked_tokens "
+              + "WHERE id > :afterId "
+              + "OR created_at >= DATE_SUB(NOW(6), INTERVAL :graceSeconds SECOND) "
+              + "ORDER BY id",
+      nativeQuery = true)
+  List<RevokedToken> findPending(
+      @Param("afterId") long afterId, @Param("graceSeconds") long graceSeconds);
+
+  @Query("SELECT COALESCE(MAX(r.id), 0) FROM RevokedToken r")
+  long findMaxId();
+
+  @Modifying
+  @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+  int deleteExpired(Instant now);
+}
@@ -7,7 +7,10 @@
 package com.agentpassvault.repository;
 
 import com.agentpassvault.model.Secret;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -16,32 +19,158 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface SecretRepository extends JpaRepository<Secret, Long> {
+
+  /**
+   * Rows of {@code (meta_key, val)} for every top-level key of the JSON document {@code doc} that
+   * holds a scalar, or an array of scalars (one row per element). Shared by the metadata index
+   * writer and the predicate side of {@link #findByIndexedMetadataAndTenantId}.
+   */
+  String METADATA_ENTRIES =
+      "JSON_TABLE(JSON_KEYS(doc), '$[*]' COLUMNS (meta_key VARCHAR(1024) PATH '$')) k "
+          + "JOIN JSON_TABLE("
+          + "IF(JSON_TYPE(JSON_EXTRACT(doc, CONCAT('$.', JSON_QUOTE(k.meta_key)))) = 'ARRAY', "
+          + "JSON_EXTRACT(doc, CONCAT('$.', JSON_QUOTE(k.meta_key))), "
+          + "JSON_ARRAY(JSON_EXTRACT(doc, CONCAT('$.', JSON_QUOTE(k.meta_key))))), "
+          + "'$[*]' COLUMNS (val JSON PATH '$')) v ";
+
+  String INDEXABLE_METADATA_ENTRY =
+      "CHAR_LENGTH(k.meta_key) <= 255 AND v.val IS NOT NULL "
+          + "AND JSON_TYPE(v.val) NOT IN ('OBJECT', 'ARRAY', 'NULL') ";
+
   @Modifying
   void deleteAllByTenantId(Long tenantId);
 
+  Optional<Secret> findByIdAndTenant_Id(Long id, Long tenantId);
+
+  boolean existsByIdAndTenant_Id(Long id, Long tenantId);
+
+  List<Secret> findAllByIdInAndTenant_Id(Collection<Long> ids, Long tenantId);
+
+  /**
+   * Name search through the ngram FULLTEXT index on {@code secrets.name}. {@code query} is a
+   * boolean-mode expression, best matches first.
+   */
+  @Query(
+      value =
+          "SELECT * FROM secrets "
+              + "WHERE tenant_id = :tenantId "
+              + "AND MATCH(name) AGAINST (:query IN BOOLEAN MODE) "
+              + "ORDER BY MATCH(name) AGAINST (:query IN BOOLEAN MODE) DESC, CHAR_LENGTH(name), id "
+              + "LIMIT :limit OFFSET :offset",
+      nativeQuery = true)
+  List<Secret> searchByName(
+      @Param("query") String query,
+      @Param("tenantId") Long tenantId,
+      @Param("limit") int limit,
+      @Param("offset") long offset);
+
+  @Query(
+      value =
+          "SELECT * FROM secrets "
+              + "WHERE tenant_id = :tenantId "
+              + "AND MATCH(name) AGAINST (:query IN BOOLEAN MODE) "
+              + "AND JSON_CONTAINS(metadata, CAST(:metadataJson AS JSON)) "
+              + "ORDER BY MATCH(name) AGAINST (:query IN BOOLEAN MODE) DESC, CHAR_LENGTH(name), id "
+              + "LIMIT :limit OFFSET :offset",
+      nativeQuery = true)
+  List<Secret> searchByNameAndMetadata(
+      @Param("query") String query,
+      @Param("metadataJson") String metadataJson,
+      @Param("tenantId") Long tenantId,
+      @Param("limit") int limit,
+      @Param("offset") long offset);
+
+  // Terms shorter than the ngram token size never hit the FULLTEXT index
   @Query(
-      "SELECT s FROM Secret s JOIN FETCH s.tenant WHERE LOWER(s.name) LIKE LOWER(CONCAT('%', :name, '%')) AND s.tenant.id = :tenantId")
-  List<Secret> findByNameContainingIgnoreCaseAndTenantId(String name, Long tenantId);
+      value =
+          "SELECT * FROM secrets "
+              + "WHERE tenant_id = :tenantId "
+              + "AND LOWER(name) LIKE LOWER(CONCAT('%', :name, '%')) "
+              + "ORDER BY CHAR_LENGTH(name), id "
+              + "LIMIT :limit OFFSET :offset",
+      nativeQuery = true)
+  List<Secret> findByNameContainingIgnoreCaseAndTenantId(
+      @Param("name") String name,
+      @Param("tenantId") Long tenantId,
+      @Param("limit") int limit,
+      @Param("offset") long offset);
 
   @Query(
       value =
-          "SELECT * FROM secrets WHERE tenant_id = :tenantId AND JSON_CONTAINS(metadata, CAST(:metadataJson AS JSON))",
+          "SELECT * FROM secrets WHERE tenant_id = :tenantId AND id > :afterId AND JSON_CONTAINS(metadata, CAST(:metadataJson AS JSON)) ORDER BY id LIMIT :limit",
       nativeQuery = true)
   List<Secret> findByMetadataAndTenantId(
-      @Param("metadataJson") String metadataJson, @Param("tenantId") Long tenantId);
+      @Param("metadataJson") String metadataJson,
+      @Param("tenantId") Long tenantId,
+      @Param("afterId") Long afterId,
+      @Param("limit") int limit);
+
+  /**
+   * Metadata search through {@code secret_metadata_kv}: every key/value predicate is a primary key
+   * range, and a secret matches when it is found for all of them. Only valid for predicates
+   * accepted by {@code SecretService#isIndexableMetadata}.
+   */
+  @Query(
+      value =
+          "WITH predicates AS ("
+              + "SELECT DISTINCT k.meta_key, SHA2(CAST(v.val AS CHAR), 256) AS value_hash "
+              + "FROM (SELECT CAST(:metadataJson AS JSON) AS doc) d JOIN "
+              + METADATA_ENTRIES
+              + ") "
+              + "SELECT * FROM secrets "
+              + "WHERE tenant_id = :tenantId AND id > :afterId AND id IN ("
+              + "SELECT kv.secret_id FROM secret_metadata_kv kv "
+              + "JOIN predicates p ON kv.meta_key = p.meta_key COLLATE utf8mb4_bin "
+              + "AND kv.value_hash = p.value_hash COLLATE utf8mb4_bin "
+              + "WHERE kv.tenant_id = :tenantId AND kv.secret_id > :afterId "
+              + "GROUP BY kv.secret_id "
+              + "HAVING COUNT(*) = (SELECT COUNT(*) FROM predicates)) "
+              + "ORDER BY id "
+              + "LIMIT :limit",
+      nativeQuery = true)
+  List<Secret> findByIndexedMetadataAndTenantId(
+      @Param("metadataJson") String metadataJson,
+      @Param("tenantId") Long tenantId,
+      @Param("afterId") Long afterId,
+      @Param("limit") int limit);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+      value =
+          "INSERT INTO secret_metadata_kv (tenant_id, meta_key, value_hash, secret_id) "
+              + "SELECT DISTINCT s.tenant_id, k.meta_key, SHA2(CAST(v.val AS CHAR), 256), s.id "
+              + "FROM (SELECT id, tenant_id, metadata AS doc FROM secrets WHERE id = :secretId) s "
+              + "JOIN "
+              + METADATA_ENTRIES
+              + "WHERE "
+              + INDEXABLE_METADATA_ENTRY,
+      nativeQuery = true)
+  void indexMetadata(@Param("secretId") Long secretId);
+
+  @Modifying(flushAutomatically = true)
+  @Query(value = "DELETE FROM secret_metadata_kv WHERE secret_id = :secretId", nativeQuery = true)
+  void deleteMetadataIndex(@Param("secretId") Long secretId);
 
   @Query(
       value =
           "SELECT * FROM secrets "
               + "WHERE tenant_id = :tenantId "
               + "AND LOWER(name) LIKE LOWER(CONCAT('%', :name, '%')) "
-              + "AND JSON_CONTAINS(metadata, CAST(:metadataJson AS JSON))",
+              + "AND JSON_CONTAINS(metadata, CAST(:metadataJson AS JSON)) "
+              + "ORDER BY CHAR_LENGTH(name), id "
+              + "LIMIT :limit OFFSET :offset",
       nativeQuery = true)
   List<Secret> findByNameAndMetadataAndTenantId(
       @Param("name") String name,
       @Param("metadataJson") String metadataJson,
-      @Param("tenantId") Long tenantId);
+      @Param("tenantId") Long tenantId,
+      @Param("limit") int limit,
+      @Param("offset") long offset);
 
   @Query("SELECT s FROM Secret s JOIN FETCH s.tenant WHERE s.tenant.id = :tenantId")
   List<Secret> findAllByTenantId(Long tenantId);
+
+  @Query(
+      "SELECT s FROM Secret s JOIN FETCH s.tenant WHERE s.tenant.id = :tenantId AND s.id > :afterId ORDER BY s.id")
+  List<Secret> findPageByTenantId(Long tenantId, Long afterId, Limit limit);
 }
@@ -8,6 +8,7 @@ package com.agentpassvault.repository;
 
 import com.agentpassvault.model.Role;
 import com.agentpassvault.model.User;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -19,12 +20,22 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
   Optional<User> findByUsername(String username);
 
+  Optional<User> findByIdAndTenant_Id(Long id, Long tenantId);
+
+  boolean existsByIdAndTenant_Id(Long id, Long tenantId);
+
+  boolean existsByIdAndTenant_IdAndPublicKeyFingerprintIsNotNull(Long id, Long tenantId);
+
+  Optional<User> findByIdAndTenant_IdAndRole(Long id, Long tenantId, Role role);
+
   Optional<User> findByTenant_IdAndAppTokenHash(Long tenantId, String appTokenHash);
 
   Optional<User> findByResetPasswordToken(String resetPasswordToken);
 
   List<User> findByTenant_IdAndRole(Long tenantId, Role role);
 
+  List<User> findAllByIdInAndTenant_Id(Collection<Long> ids, Long tenantId);
+
   @Modifying
   void deleteAllByTenantId(Long tenantId);
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.security;
+
+import com.agentpassvault.cache.JwtAuthenticationCache;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates bearer tokens through {@link JwtAuthenticationCache}. Only tokens not seen before
+ * are decoded, verified and converted by the standard {@link JwtAuthenticationProvider}; every
+ * token, cached or not, is then checked against the {@link TokenRevocationList}.
+ */
+@Component
+public class CachingJwtAuthenticationManager implements AuthenticationManager {
+
+  private final JwtAuthenticationProvider provider;
+  private final JwtAuthenticationCache cache;
+  private final TokenRevocationList revocationList;
+
+  public CachingJwtAuthenticationManager(
+      JwtDecoder jwtDecoder,
+      JwtConverter jwtConverter,
+      JwtAuthenticationCache cache,
+      TokenRevocationList revocationList) {
+    this.provider = new JwtAuthenticationProvider(jwtDecoder);
+    this.provider.setJwtAuthenticationConverter(jwtConverter);
+    this.cache = cache;
+    this.revocationList = revocationList;
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication) {
+    String token = ((BearerTokenAuthenticationToken) authentication).getToken();
+    // Verified without the request's details, which would otherwise be shared by later requests
+    AgentPassVaultAuthentication result =
+        cache.get(
+            token,
+            raw ->
+                (AgentPassVaultAuthentication)
+                    provider.authenticate(new BearerTokenAuthenticationToken(raw)));
+    if (revocationList.isRevoked(result)) {
+      throw new InvalidBearerTokenException("Token has been revoked");
+    }
+    return result;
+  }
+}
@@ -6,28 +6,62 @@
  */
 package com.agentpassvault.security;
 
-import com.agentpassvault.model.IdempotencyRecord;
-import com.agentpassvault.repository.IdempotencyRecordRepository;
+import com.agentpassvault.exception.GlobalExceptionHandler;
+import com.agentpassvault.security.IdempotencyStore.StoredResponse;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.time.Instant;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.ContentCachingResponseWrapper;
+import tools.jackson.databind.ObjectMapper;
 
 @Component
-@RequiredArgsConstructor
 public class IdempotencyFilter extends OncePerRequestFilter {
 
-  private final IdempotencyRecordRepository repository;
+  // Response headers worth replaying besides Content-Type; the rest are set by the container
+  private static final List<String> REPLAYED_HEADERS =
+      List.of(HttpHeaders.LOCATION, HttpHeaders.ETAG, HttpHeaders.CONTENT_LANGUAGE);
+
+  private final IdempotencyStore idempotencyStore;
+  private final ObjectMapper objectMapper;
+  private final Duration waitTimeout;
+  private final Duration retryAfter;
+
+  // Requests currently running on this node, so duplicates wait for the result instead of
+  // repeating the work
+  private final Map<String, CompletableFuture<Optional<StoredResponse>>> inFlight =
+      new ConcurrentHashMap<>();
+
+  public IdempotencyFilter(
+      IdempotencyStore idempotencyStore,
+      ObjectMapper objectMapper,
+      @Value("${agentpassvault.idempotency.wait-timeout}") Duration waitTimeout,
+      @Value("${agentpassvault.idempotency.retry-after}") Duration retryAfter) {
+    this.idempotencyStore = idempotencyStore;
+    this.objectMapper = objectMapper;
+    this.waitTimeout = waitTimeout;
+    this.retryAfter = retryAfter;
+  }
 
   @Override
   protected void doFilterInternal(
@@ -55,33 +89,123 @@ public class IdempotencyFilter extends OncePerRequestFilter {
     String tenantId = agentAuth.getTenantId().toString();
     String recordId = tenantId + ":" + idempotencyKey;
 
-    Optional<IdempotencyRecord> existing = repository.findById(recordId);
-    if (existing.isPresent()) {
-      IdempotencyRecord record = existing.get();
-      response.setStatus(record.getResponseStatus());
-      response.setContentType("application/json");
-      response.getWriter().write(record.getResponseBody());
-      response.getWriter().flush();
+    Optional<StoredResponse> recent = idempotencyStore.findRecent(recordId);
+    if (recent.isPresent()) {
+      replay(response, recent.get());
+      return;
+    }
+
+    CompletableFuture<Optional<StoredResponse>> own = new CompletableFuture<>();
+    CompletableFuture<Optional<StoredResponse>> running = inFlight.putIfAbsent(recordId, own);
+    if (running != null) {
+      Optional<StoredResponse> result = await(running);
+      if (result.isPresent()) {
+        replay(response, result.get());
+      } else {
+        conflict(request, response);
+      }
       return;
     }
 
+    Optional<StoredResponse> result = Optional.empty();
+    try {
+      IdempotencyStore.Reservation reservation = idempotencyStore.reserve(recordId);
+      if (reservation.completed() != null) {
+        result = Optional.of(reservation.completed());
+        replay(response, reservation.completed());
+        return;
+      }
+      if (!reservation.acquired()) {
+        conflict(request, response);
+        return;
+      }
+
+      result = execute(recordId, request, response, filterChain);
+    } finally {
+      inFlight.remove(recordId, own);
+      own.complete(result);
+    }
+  }
+
+  private Optional<StoredResponse> execute(
+      String recordId,
+      HttpServletRequest request,
+      HttpServletResponse response,
+      FilterChain filterChain)
+      throws ServletException, IOException {
     ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+    Optional<StoredResponse> result = Optional.empty();
     try {
       filterChain.doFilter(request, responseWrapper);
 
       // Store the response if successful (2xx)
       int status = responseWrapper.getStatus();
       if (status >= 200 && status < 300) {
-        String responseBody =
-            new String(responseWrapper.getContentAsByteArray(), StandardCharsets.UTF_8);
-        IdempotencyRecord record =
-            new IdempotencyRecord(recordId, responseBody, status, Instant.now());
-        repository.save(record);
+        result =
+            Optional.of(
+                idempotencyStore.complete(
+                    recordId,
+                    status,
+                    responseWrapper.getContentType(),
+                    replayedHeaders(responseWrapper),
+                    responseWrapper.getContentAsByteArray()));
       }
 
       responseWrapper.copyBodyToResponse();
+      return result;
     } finally {
-      // Cleanup handled by wrapper
+      if (result.isEmpty()) {
+        idempotencyStore.release(recordId);
+      }
+    }
+  }
+
+  private Optional<StoredResponse> await(CompletableFuture<Optional<StoredResponse>> running) {
+    try {
+      return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return Optional.empty();
+    } catch (ExecutionException | TimeoutException e) {
+      return Optional.empty();
     }
   }
+
+  private Map<String, String> replayedHeaders(HttpServletResponse response) {
+    Map<String, String> headers = new LinkedHashMap<>();
+    for (String name : REPLAYED_HEADERS) {
+      String value = response.getHeader(name);
+      if (value != null) {
+        headers.put(name, value);
+      }
+    }
+    return headers;
+  }
+
+  private void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+    response.setStatus(stored.status());
+    if (stored.contentType() != null) {
+      response.setContentType(stored.contentType());
+    }
+    stored.headers().forEach(response::setHeader);
+    response.setContentLength(stored.length());
+    stored.writeBodyTo(response.getOutputStream());
+    response.flushBuffer();
+  }
+
+  private void conflict(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    GlobalExceptionHandler.ErrorResponse error =
+        new GlobalExceptionHandler.ErrorResponse(
+            HttpStatus.CONFLICT.value(),
+            "A request with this Idempotency-Key is still in progress",
+            request.getRequestURI(),
+            LocalDateTime.now(ZoneId.of("UTC")),
+            null);
+    response.setStatus(HttpStatus.CONFLICT.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter.toSeconds()));
+    response.setContentType("application/json");
+    response.getOutputStream().write(objectMapper.writeValueAsBytes(error));
+    response.flushBuffer();
+  }
 }
@@ -0,0 +1,369 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.security;
+
+import com.agentpassvault.model.IdempotencyRecord;
+import com.agentpassvault.model.IdempotencyState;
+import com.agentpassvault.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Two-tier store behind {@link IdempotencyFilter}. Recent responses live in memory in the same
+ * form they are persisted in, so retries are answered without touching MySQL. The database stays
+ * the durable tier for other nodes and restarts: a key is reserved there with a PENDING row before
+ * the request runs, and the response that completes it is written asynchronously in batches, off
+ * the request path.
+ *
+ * <p>A response is held in memory, beyond the reach of cache eviction, until its row is COMPLETED.
+ * Writes that fail are retried on every flush, so while this node is up the key keeps replaying
+ * and its PENDING row is never taken over. What the asynchronous write gives up is a crash within
+ * the flush interval (or while MySQL keeps refusing the write): the response is lost and, once
+ * {@code pending-timeout} has passed, a retry runs the request again.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+  /** How long a key replays its first response (see DESIGN.md, "Idempotency"). */
+  public static final Duration RETENTION = Duration.ofHours(24);
+
+  private final IdempotencyRecordRepository repository;
+  private final TransactionTemplate transactionTemplate;
+  private final Cache<String, StoredResponse> recent;
+  private final BlockingQueue<PendingWrite> pendingWrites;
+  // Completed responses whose row is not COMPLETED yet, kept here so eviction cannot drop them
+  private final Map<String, StoredResponse> unpersisted = new ConcurrentHashMap<>();
+  // Writes that failed and are retried on each flush until they stick
+  private final Queue<PendingWrite> failedWrites = new ConcurrentLinkedQueue<>();
+  private final int batchSize;
+  private final Duration pendingTimeout;
+  private final int compressionThreshold;
+  private final ObjectMapper objectMapper;
+  private final Counter writeThrough;
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  public IdempotencyStore(
+      IdempotencyRecordRepository repository,
+      PlatformTransactionManager transactionManager,
+      @Value("${agentpassvault.idempotency.cache.max-weight}") DataSize maxWeight,
+      @Value("${agentpassvault.idempotency.queue-capacity}") int queueCapacity,
+      @Value("${agentpassvault.idempotency.batch-size}") int batchSize,
+      @Value("${agentpassvault.idempotency.pending-timeout}") Duration pendingTimeout,
+      @Value("${agentpassvault.idempotency.compression-threshold}") DataSize compressionThreshold,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
+    this.repository = repository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+    this.pendingTimeout = pendingTimeout;
+    this.compressionThreshold = Math.toIntExact(compressionThreshold.toBytes());
+    this.objectMapper = objectMapper;
+    this.pendingWrites = new ArrayBlockingQueue<>(queueCapacity);
+    this.recent =
+        Caffeine.newBuilder()
+            .maximumWeight(maxWeight.toBytes())
+            .weigher((String key, StoredResponse value) -> 64 + 2 * key.length() + value.weight())
+            .expireAfter(new ExpireAtRetentionEnd())
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, recent, "idempotencyCache");
+    Gauge.builder("agentpassvault.idempotency.pending.writes", pendingWrites, BlockingQueue::size)
+        .description("Idempotency records waiting to be written to the database")
+        .register(meterRegistry);
+    Gauge.builder("agentpassvault.idempotency.failed.writes", failedWrites, Queue::size)
+        .description("Idempotency records whose database write failed and is being retried")
+        .register(meterRegistry);
+    this.writeThrough =
+        Counter.builder("agentpassvault.idempotency.write.through")
+            .description("Idempotency records written synchronously because the queue was full")
+            .register(meterRegistry);
+  }
+
+  /** A response recorded by this node within the retention window, without asking MySQL. */
+  public Optional<StoredResponse> findRecent(String recordId) {
+    StoredResponse stored = recent.getIfPresent(recordId);
+    return Optional.ofNullable(stored != null ? stored : unpersisted.get(recordId));
+  }
+
+  /**
+   * Claims {@code recordId} across nodes by inserting a PENDING row. If the key is taken, returns
+   * the completed response to replay, or {@link Reservation#inFlight()} while another node is
+   * still working on it.
+   */
+  public Reservation reserve(String recordId) {
+    Instant now = Instant.now();
+    if (repository.reserve(recordId, now) == 1) {
+      return Reservation.acquired();
+    }
+
+    Optional<IdempotencyRecord> existing = repository.findById(recordId);
+    if (existing.isEmpty()) {
+      // Released by its owner in the meantime
+      return repository.reserve(recordId, now) == 1
+          ? Reservation.acquired()
+          : Reservation.inFlight();
+    }
+
+    StoredResponse unflushed = unpersisted.get(recordId);
+    if (unflushed != null) {
+      // This node ran the request and still owes the row its response; never hand the key over
+      return Reservation.completed(unflushed);
+    }
+
+    IdempotencyRecord record = existing.get();
+    if (record.getState() == IdempotencyState.COMPLETED
+        && record.getCreatedAt().isAfter(now.minus(RETENTION))) {
+      StoredResponse stored =
+          new StoredResponse(
+              record.getResponseStatus(),
+              record.getContentType(),
+              record.getResponseHeaders() != null ? record.getResponseHeaders() : Map.of(),
+              record.getResponseBody() != null ? record.getResponseBody() : new byte[0],
+              record.isCompressed(),
+              record.getBodyLength(),
+              record.getCreatedAt());
+      recent.put(recordId, stored);
+      return Reservation.completed(stored);
+    }
+
+    if (repository.takeOver(recordId, now, now.minus(pendingTimeout), now.minus(RETENTION)) == 1) {
+      return Reservation.acquired();
+    }
+    return Reservation.inFlight();
+  }
+
+  /** Gives up a reservation whose request did not succeed, so a retry can run it again. */
+  public void release(String recordId) {
+    repository.release(recordId);
+  }
+
+  /**
+   * Records the response of a reserved key. Bodies of at least {@code compression-threshold} bytes
+   * are deflated once here and kept that way in memory and in MySQL. The PENDING row is completed
+   * asynchronously; until then the response stays pinned in memory.
+   */
+  public StoredResponse complete(
+      String recordId, int status, String contentType, Map<String, String> headers, byte[] body) {
+    boolean compress = body.length >= compressionThreshold;
+    StoredResponse stored =
+        new StoredResponse(
+            status,
+            contentType,
+            Map.copyOf(headers),
+            compress ? ResponseBodyCompression.deflate(body) : body,
+            compress,
+            body.length,
+            Instant.now());
+    recent.put(recordId, stored);
+    unpersisted.put(recordId, stored);
+
+    PendingWrite write = new PendingWrite(recordId, stored);
+    if (!pendingWrites.offer(write)) {
+      writeThrough.increment();
+      try {
+        persist(write);
+      } catch (RuntimeException e) {
+        // The request already succeeded; its response is retried with the next flush
+        log.warn("Failed to persist idempotency record {}", recordId, e);
+        failedWrites.add(write);
+      }
+    }
+    return stored;
+  }
+
+  /**
+   * Forgets every key of a deleted tenant, including responses not written yet, so a later flush
+   * cannot bring its rows back.
+   */
+  public void evictTenant(Long tenantId) {
+    String prefix = tenantId + ":";
+    pendingWrites.removeIf(write -> write.id().startsWith(prefix));
+    failedWrites.removeIf(write -> write.id().startsWith(prefix));
+    unpersisted.keySet().removeIf(id -> id.startsWith(prefix));
+    recent.asMap().keySet().removeIf(id -> id.startsWith(prefix));
+  }
+
+  @Scheduled(fixedDelayString = "${agentpassvault.idempotency.flush-interval-ms}")
+  public void flush() {
+    // A lock rather than synchronized: flushing writes to MySQL and may run on a virtual thread
+    flushLock.lock();
+    try {
+      retryFailedWrites();
+      List<PendingWrite> batch = new ArrayList<>(batchSize);
+      while (pendingWrites.drainTo(batch, batchSize) > 0) {
+        try {
+          transactionTemplate.executeWithoutResult(tx -> batch.forEach(this::write));
+          batch.forEach(this::persisted);
+        } catch (RuntimeException e) {
+          // Nothing in the batch was committed; keep every write so the next flush retries it
+          log.warn("Failed to persist {} idempotency records, will retry", batch.size(), e);
+          failedWrites.addAll(batch);
+        }
+        batch.clear();
+      }
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  @PreDestroy
+  void flushOnShutdown() {
+    flush();
+    if (!failedWrites.isEmpty()) {
+      log.error(
+          "Shutting down with {} idempotency records not persisted; their keys can run again "
+              + "after the pending timeout",
+          failedWrites.size());
+    }
+  }
+
+  // One transaction per write, so a single bad record cannot hold back the others
+  private void retryFailedWrites() {
+    Instant retentionCutoff = Instant.now().minus(RETENTION);
+    RuntimeException lastFailure = null;
+    int failed = 0;
+    for (int i = failedWrites.size(); i > 0; i--) {
+      PendingWrite write = failedWrites.poll();
+      if (write == null) {
+        break;
+      }
+      if (write.response().createdAt().isBefore(retentionCutoff)) {
+        // Past the window nothing has to replay it any more
+        persisted(write);
+        continue;
+      }
+      try {
+        persist(write);
+      } catch (RuntimeException e) {
+        failedWrites.add(write);
+        lastFailure = e;
+        failed++;
+      }
+    }
+    if (lastFailure != null) {
+      log.warn("Still failing to persist {} idempotency records", failed, lastFailure);
+    }
+  }
+
+  private void persist(PendingWrite write) {
+    transactionTemplate.executeWithoutResult(tx -> write(write));
+    persisted(write);
+  }
+
+  private void persisted(PendingWrite write) {
+    unpersisted.remove(write.id(), write.response());
+  }
+
+  private void write(PendingWrite write) {
+    StoredResponse stored = write.response();
+    repository.complete(
+        write.id(),
+        stored.body(),
+        stored.length(),
+        stored.compressed(),
+        stored.contentType(),
+        stored.headers().isEmpty() ? null : objectMapper.writeValueAsString(stored.headers()),
+        stored.status(),
+        stored.createdAt());
+  }
+
+  /** Outcome of {@link #reserve}: exactly one of acquired, completed or neither (in flight). */
+  public record Reservation(boolean acquired, StoredResponse completed) {
+
+    static Reservation acquired() {
+      return new Reservation(true, null);
+    }
+
+    static Reservation completed(StoredResponse stored) {
+      return new Reservation(false, stored);
+    }
+
+    static Reservation inFlight() {
+      return new Reservation(false, null);
+    }
+  }
+
+  /**
+   * A recorded response as it is stored: {@code body} holds the bytes sent to the client, deflated
+   * when {@code compressed} is set, and {@code length} is their size before compression.
+   */
+  public record StoredResponse(
+      int status,
+      String contentType,
+      Map<String, String> headers,
+      byte[] body,
+      boolean compressed,
+      int length,
+      Instant createdAt) {
+
+    /** Copies the original response bytes to {@code out}, inflating them on the way if needed. */
+    public void writeBodyTo(OutputStream out) throws IOException {
+      if (compressed) {
+        ResponseBodyCompression.inflateTo(body, out);
+      } else {
+        out.write(body);
+      }
+    }
+
+    int weight() {
+      return 96 + body.length;
+    }
+  }
+
+  // Entries loaded from the database keep the window of the original request, not a fresh one
+  private static final class ExpireAtRetentionEnd implements Expiry<String, StoredResponse> {
+
+    @Override
+    public long expireAfterCreate(String key, StoredResponse value, long currentTime) {
+      Duration left = Duration.between(Instant.now(), value.createdAt().plus(RETENTION));
+      return Math.max(0, left.toNanos());
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String key, StoredResponse value, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(
+        String key, StoredResponse value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+
+  private record PendingWrite(String id, StoredResponse response) {}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/** Base64 SHA-256 of a bearer credential, so raw tokens are never stored or used as keys. */
+public final class TokenHasher {
+
+  private static final MessageDigest SHA_256 = newDigest();
+
+  private TokenHasher() {}
+
+  public static String sha256(String token) {
+    byte[] hash = copyDigest().digest(token.getBytes(StandardCharsets.UTF_8));
+    return Base64.getEncoder().encodeToString(hash);
+  }
+
+  // Cloning a prototype skips the provider lookup done by MessageDigest.getInstance
+  private static MessageDigest copyDigest() {
+    try {
+      return (MessageDigest) SHA_256.clone();
+    } catch (CloneNotSupportedException e) {
+      return newDigest();
+    }
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException("Error hashing token", e);
+    }
+  }
+}
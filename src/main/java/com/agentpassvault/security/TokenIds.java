@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.security;
+
+import io.hypersistence.tsid.TSID;
+import java.time.Instant;
+
+/**
+ * Token ids ({@code jti}) are TSIDs, like every other id here. Besides being unique they record
+ * when the token was issued to the millisecond, where {@code iat} only has whole seconds; that is
+ * what revocations by cutoff compare against.
+ */
+public final class TokenIds {
+
+  private TokenIds() {}
+
+  public static String newId() {
+    return TSID.Factory.getTsid().toString();
+  }
+
+  /** The issue time recorded in {@code tokenId}, or {@code issuedAt} for tokens without one. */
+  public static Instant issuedAt(String tokenId, Instant issuedAt) {
+    if (tokenId != null && TSID.isValid(tokenId)) {
+      return TSID.from(tokenId).getInstant();
+    }
+    return issuedAt;
+  }
+}
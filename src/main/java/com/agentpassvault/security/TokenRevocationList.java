@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.security;
+
+import com.agentpassvault.model.RevokedToken;
+import com.agentpassvault.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Revoked access tokens, checked on every authenticated request without a query. Revocations are
+ * rows in {@code revoked_tokens}; every node keeps the unexpired ones in memory and polls the table
+ * for those written elsewhere.
+ *
+ * <p>Revoked token ids sit in an exact map behind a {@link BloomFilter}, so a token that was never
+ * revoked, which is nearly every token, is cleared by a few bit tests. Only a filter hit consults
+ * the map. Per-user and per-tenant cutoffs are rare and short-lived and are looked up directly.
+ * The filter cannot forget ids, so it is rebuilt from the map whenever expired entries are purged.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  private final RevokedTokenRepository repository;
+  private final Duration accessTtl;
+  private final int expectedRevocations;
+  private final long graceSeconds;
+  private final Counter filterHits;
+  private final Counter falsePositives;
+
+  private final Map<String, Instant> revokedTokenIds = new ConcurrentHashMap<>();
+  private final Map<Long, Instant> userCutoffs = new ConcurrentHashMap<>();
+  private final Map<Long, Instant> tenantCutoffs = new ConcurrentHashMap<>();
+  // Guards filter puts and rebuilds; lookups take no lock
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final ReentrantLock pollLock = new ReentrantLock();
+
+  private volatile BloomFilter filter;
+  private long cursor = -1;
+
+  public TokenRevocationList(
+      RevokedTokenRepository repository,
+      @Value("${agentpassvault.jwt.expiration-minutes}") long expirationMinutes,
+      @Value("${agentpassvault.jwt.revocation.expected-size}") int expectedRevocations,
+      @Value("${agentpassvault.jwt.revocation.grace}") Duration revocationGrace,
+      MeterRegistry meterRegistry) {
+    this.repository = repository;
+    this.accessTtl = Duration.ofMinutes(expirationMinutes);
+    this.expectedRevocations = expectedRevocations;
+    this.graceSeconds = revocationGrace.toSeconds();
+    this.filter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+    this.filterHits =
+        Counter.builder("agentpassvault.auth.revocation.filter-hits")
+            .description("Access tokens the Bloom filter could not clear")
+            .register(meterRegistry);
+    this.falsePositives =
+        Counter.builder("agentpassvault.auth.revocation.false-positives")
+            .description("Bloom filter hits for tokens that were not revoked")
+            .register(meterRegistry);
+    meterRegistry.gaugeMapSize(
+        "agentpassvault.auth.revocation.revoked-tokens", Tags.empty(), revokedTokenIds);
+  }
+
+  @PostConstruct
+  void load() {
+    pollLock.lock();
+    try {
+      cursor = repository.findMaxId();
+      repository.findByExpiresAtAfter(Instant.now()).forEach(this::apply);
+    } finally {
+      pollLock.unlock();
+    }
+  }
+
+  public boolean isRevoked(AgentPassVaultAuthentication authentication) {
+    String tokenId = authentication.getJwt().getId();
+    if (tokenId != null && filter.mightContain(tokenId)) {
+      filterHits.increment();
+      if (revokedTokenIds.containsKey(tokenId)) {
+        return true;
+      }
+      falsePositives.increment();
+    }
+    if (userCutoffs.isEmpty() && tenantCutoffs.isEmpty()) {
+      return false;
+    }
+    Jwt jwt = authentication.getJwt();
+    Instant issuedAt = TokenIds.issuedAt(jwt.getId(), jwt.getIssuedAt());
+    return isBefore(issuedAt, userCutoffs.get((Long) authentication.getPrincipal()))
+        || isBefore(issuedAt, tenantCutoffs.get(authentication.getTenantId()));
+  }
+
+  /** Revokes one access token until it expires, e.g. on logout. */
+  public void revokeToken(Long tenantId, Long userId, String tokenId, Instant expiresAt) {
+    save(RevokedToken.forToken(tenantId, userId, tokenId, expiresAt));
+  }
+
+  /** Revokes every access token of a user issued so far, e.g. when the agent is deleted. */
+  public void revokeUser(Long tenantId, Long userId) {
+    Instant cutoff = cutoff();
+    save(RevokedToken.forTokensIssuedBefore(tenantId, userId, cutoff, cutoff.plus(accessTtl)));
+  }
+
+  /** Revokes every access token of a tenant issued so far. */
+  public void revokeTenant(Long tenantId) {
+    Instant cutoff = cutoff();
+    save(RevokedToken.forTokensIssuedBefore(tenantId, null, cutoff, cutoff.plus(accessTtl)));
+  }
+
+  /** Applies revocations committed by other nodes since the last poll. */
+  @Scheduled(fixedDelayString = "${agentpassvault.jwt.revocation.poll-interval-ms}")
+  public void poll() {
+    pollLock.lock();
+    try {
+      for (RevokedToken revoked : repository.findPending(cursor, graceSeconds)) {
+        cursor = Math.max(cursor, revoked.getId());
+        apply(revoked);
+      }
+    } finally {
+      pollLock.unlock();
+    }
+  }
+
+  // Run every hour
+  @Scheduled(fixedDelay = 3600000)
+  @Transactional
+  public void purge() {
+    Instant now = Instant.now();
+    int deleted = repository.deleteExpired(now);
+    userCutoffs.values().removeIf(cutoff -> !cutoff.plus(accessTtl).isAfter(now));
+    tenantCutoffs.values().removeIf(cutoff -> !cutoff.plus(accessTtl).isAfter(now));
+
+    writeLock.lock();
+    try {
+      revokedTokenIds.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+      BloomFilter rebuilt =
+          new BloomFilter(
+              Math.max(expectedRevocations, revokedTokenIds.size() * 2), FALSE_POSITIVE_RATE);
+      revokedTokenIds.keySet().forEach(rebuilt::put);
+      filter = rebuilt;
+    } finally {
+      writeLock.unlock();
+    }
+    log.debug("Deleted {} expired token revocations", deleted);
+  }
+
+  private void save(RevokedToken revoked) {
+    // Applied here once the row commits, so a rolled-back revocation leaves no trace; other nodes
+    // pick it up through the poll
+    RevokedToken saved = repository.save(revoked);
+    AfterCommit.run(() -> apply(saved));
+  }
+
+  private void apply(RevokedToken revoked) {
+    if (revoked.getTokenId() != null) {
+      writeLock.lock();
+      try {
+        // The map first: a filter hit must always find its entry
+        revokedTokenIds.put(revoked.getTokenId(), revoked.getExpiresAt());
+        filter.put(revoked.getTokenId());
+      } finally {
+        writeLock.unlock();
+      }
+    } else if (revoked.getUserId() != null) {
+      userCutoffs.merge(revoked.getUserId(), revoked.getIssuedBefore(), TokenRevocationList::later);
+    } else {
+      tenantCutoffs.merge(
+          revoked.getTenantId(), revoked.getIssuedBefore(), TokenRevocationList::later);
+    }
+  }
+
+  private static boolean isBefore(Instant issuedAt, Instant cutoff) {
+    return cutoff != null && (issuedAt == null || issuedAt.isBefore(cutoff));
+  }
+
+  // Compared against the millisecond issue time carried by the token id
+  private static Instant cutoff() {
+    return Instant.now().truncatedTo(ChronoUnit.MILLIS);
+  }
+
+  private static Instant later(Instant a, Instant b) {
+    return a.isAfter(b) ? a : b;
+  }
+}
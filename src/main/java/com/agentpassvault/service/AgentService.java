@@ -6,6 +6,7 @@
  */
 package com.agentpassvault.service;
 
+import com.agentpassvault.cache.AgentTokenCache;
 import com.agentpassvault.dto.AgentResponse;
 import com.agentpassvault.dto.AgentTokenResponse;
 import com.agentpassvault.exception.ResourceNotFoundException;
@@ -13,9 +14,7 @@ import com.agentpassvault.model.Role;
 import com.agentpassvault.model.User;
 import com.agentpassvault.repository.LeaseRepository;
 import com.agentpassvault.repository.UserRepository;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import com.agentpassvault.security.TokenRevocationList;
 import java.security.SecureRandom;
 import java.util.Base64;
 import java.util.List;
@@ -31,11 +30,14 @@ public class AgentService {
   private final UserRepository userRepository;
   private final LeaseRepository leaseRepository;
   private final UserService userService;
+  private final AgentTokenCache agentTokenCache;
+  private final RefreshTokenRegistry refreshTokenRegistry;
+  private final TokenRevocationList tokenRevocationList;
 
   @Transactional
   public AgentTokenResponse createAgent(Long tenantId, String name) {
     String appToken = generateAppToken();
-    String tokenHash = hashToken(appToken);
+    String tokenHash = AppTokenHasher.hash(appToken);
 
     User agent = userService.createAgentUser(tenantId, tokenHash, name);
 
@@ -57,10 +59,13 @@ public class AgentService {
     User agent = getAgent(tenantId, agentId);
 
     String newAppToken = generateAppToken();
-    String tokenHash = hashToken(newAppToken);
+    String tokenHash = AppTokenHasher.hash(newAppToken);
 
+    agentTokenCache.evict(tenantId, agent.getAppTokenHash());
     agent.setAppTokenHash(tokenHash);
     userRepository.save(agent);
+    refreshTokenRegistry.revokeUser(tenantId, agentId);
+    tokenRevocationList.revokeUser(tenantId, agentId);
 
     return new AgentTokenResponse(agent.getId().toString(), newAppToken);
   }
@@ -68,7 +73,10 @@ public class AgentService {
   @Transactional
   public void deleteAgent(Long tenantId, Long agentId) {
     User agent = getAgent(tenantId, agentId);
+    agentTokenCache.evict(tenantId, agent.getAppTokenHash());
     userRepository.delete(agent);
+    refreshTokenRegistry.revokeUser(tenantId, agentId);
+    tokenRevocationList.revokeUser(tenantId, agentId);
   }
 
   @Transactional
@@ -78,13 +86,13 @@ public class AgentService {
     userRepository.save(agent);
 
     // Delete any existing leases for this agent that use an old public key
-    leaseRepository.deleteAllByAgentIdAndPublicKeyNot(agentId, publicKey);
+    leaseRepository.deleteAllByAgentIdAndPublicKeyFingerprintNot(
+        agentId, agent.getPublicKeyFingerprint());
   }
 
   private User getAgent(Long tenantId, Long agentId) {
     return userRepository
-        .findById(agentId)
-        .filter(u -> u.getTenant().getId().equals(tenantId) && Role.AGENT.equals(u.getRole()))
+        .findByIdAndTenant_IdAndRole(agentId, tenantId, Role.AGENT)
         .orElseThrow(() -> new ResourceNotFoundException("Agent not found"));
   }
 
@@ -102,14 +110,4 @@ public class AgentService {
     new SecureRandom().nextBytes(randomBytes);
     return "at_" + Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
   }
-
-  private String hashToken(String token) {
-    try {
-      MessageDigest digest = MessageDigest.getInstance("SHA-256");
-      byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
-      return Base64.getEncoder().encodeToString(hash);
-    } catch (NoSuchAlgorithmException e) {
-      throw new RuntimeException("Error hashing token", e);
-    }
-  }
 }
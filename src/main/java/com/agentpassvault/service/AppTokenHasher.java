@@ -0,0 +1,19 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.service;
+
+import com.agentpassvault.security.TokenHasher;
+
+/** SHA-256 hashing of agent app tokens, as stored in {@code users.app_token_hash}. */
+final class AppTokenHasher {
+
+  private AppTokenHasher() {}
+
+  static String hash(String token) {
+    return TokenHasher.sha256(token);
+  }
+}
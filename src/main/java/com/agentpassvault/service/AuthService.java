@@ -6,6 +6,8 @@
  */
 package com.agentpassvault.service;
 
+import com.agentpassvault.cache.AgentTokenCache;
+import com.agentpassvault.cache.AgentTokenCache.AgentIdentity;
 import com.agentpassvault.dto.AgentLoginRequest;
 import com.agentpassvault.dto.LoginResponse;
 import com.agentpassvault.dto.RegistrationRequest;
@@ -13,17 +15,19 @@ import com.agentpassvault.dto.RegistrationResponse;
 import com.agentpassvault.dto.TwoFactorLoginRequest;
 import com.agentpassvault.dto.UserLoginRequest;
 import com.agentpassvault.exception.TwoFactorRequiredException;
+import com.agentpassvault.model.Role;
 import com.agentpassvault.model.Tenant;
 import com.agentpassvault.model.User;
-import com.agentpassvault.repository.TenantRepository;
 import com.agentpassvault.repository.UserRepository;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
+import com.agentpassvault.security.AgentPassVaultAuthentication;
+import com.agentpassvault.security.TokenHasher;
+import com.agentpassvault.security.TokenRevocationList;
+import com.agentpassvault.service.TokenService.RefreshTokenClaims;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,12 +36,14 @@ import org.springframework.transaction.annotation.Transactional;
 public class AuthService {
 
   private final UserRepository userRepository;
-  private final TenantRepository tenantRepository;
   private final PasswordEncoder passwordEncoder;
   private final TokenService tokenService;
   private final TwoFactorAuthService twoFactorAuthService;
   private final TenantService tenantService;
   private final UserService userService;
+  private final AgentTokenCache agentTokenCache;
+  private final RefreshTokenRegistry refreshTokenRegistry;
+  private final TokenRevocationList tokenRevocationList;
 
   @Transactional
   public RegistrationResponse register(RegistrationRequest request) {
@@ -92,37 +98,110 @@ public class AuthService {
 
   public LoginResponse agentLogin(AgentLoginRequest request) {
     Long tenantId = Long.valueOf(request.tenantId());
-    // Validate Tenant First
-    if (tenantRepository.findById(tenantId).isEmpty()) {
-      throw new BadCredentialsException("Tenant not found");
-    }
-
-    String tokenHash = hashToken(request.appToken());
-    User user =
-        userRepository
-            .findByTenant_IdAndAppTokenHash(tenantId, tokenHash)
+    String tokenHash = AppTokenHasher.hash(request.appToken());
+
+    // An unknown tenant simply has no matching agent, so no separate tenant lookup is needed
+    AgentIdentity agent =
+        agentTokenCache
+            .get(
+                tenantId,
+                tokenHash,
+                () ->
+                    userRepository
+                        .findByTenant_IdAndAppTokenHash(tenantId, tokenHash)
+                        .map(u -> new AgentIdentity(u.getId(), tenantId, u.getRole())))
             .orElseThrow(() -> new BadCredentialsException("Invalid token"));
 
-    return createLoginResponse(user);
+    return createLoginResponse(agent.userId(), agent.tenantId(), agent.role());
   }
 
+  /**
+   * Exchanges a refresh token for a new pair. The presented token is consumed and the next one of
+   * its family is issued; its claims and the in-memory revocation registry are all that is
+   * checked, so the database is not touched.
+   */
   public LoginResponse refreshToken(String refreshToken) {
+    RefreshTokenClaims claims;
     try {
-      Long userId = tokenService.getUserIdFromToken(refreshToken, "refresh");
-      User user =
-          userRepository
-              .findById(userId)
-              .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
-
-      return createLoginResponse(user);
+      claims = tokenService.parseRefreshToken(refreshToken);
     } catch (Exception e) {
       throw new BadCredentialsException("Invalid refresh token");
     }
+
+    if (claims.familyId() == null) {
+      return refreshLegacyToken(refreshToken, claims);
+    }
+
+    if (refreshTokenRegistry.isRevoked(claims) || !refreshTokenRegistry.consume(claims)) {
+      throw new BadCredentialsException("Invalid refresh token");
+    }
+    return createLoginResponse(
+        claims.userId(), claims.tenantId(), claims.role(), claims.familyId());
+  }
+
+  // Issued before token families existed: it has no tenant claim or token id, so the user is
+  // loaded once and the token itself stands in for the id. It then starts a family for the user.
+  private LoginResponse refreshLegacyToken(String refreshToken, RefreshTokenClaims claims) {
+    User user =
+        userRepository
+            .findById(claims.userId())
+            .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+    RefreshTokenClaims legacy =
+        new RefreshTokenClaims(
+            user.getId(),
+            user.getTenant().getId(),
+            user.getRole(),
+            null,
+            TokenHasher.sha256(refreshToken),
+            claims.issuedAt(),
+            claims.expiresAt());
+    if (refreshTokenRegistry.isRevoked(legacy) || !refreshTokenRegistry.consume(legacy)) {
+      throw new BadCredentialsException("Invalid refresh token");
+    }
+    return createLoginResponse(user);
+  }
+
+  /**
+   * Revokes the caller's access token and, when {@code refreshToken} is given, every refresh token
+   * of its family. Access tokens issued before token ids existed cannot be revoked one by one and
+   * simply run out.
+   */
+  public void logout(AgentPassVaultAuthentication authentication, String refreshToken) {
+    Long userId = (Long) authentication.getPrincipal();
+    RefreshTokenClaims refreshClaims = null;
+    if (refreshToken != null) {
+      try {
+        refreshClaims = tokenService.parseRefreshToken(refreshToken);
+      } catch (Exception e) {
+        throw new IllegalArgumentException("Invalid refresh token");
+      }
+      if (!userId.equals(refreshClaims.userId())) {
+        throw new IllegalArgumentException("Invalid refresh token");
+      }
+    }
+
+    Jwt jwt = authentication.getJwt();
+    if (jwt.getId() != null) {
+      tokenRevocationList.revokeToken(
+          authentication.getTenantId(), userId, jwt.getId(), jwt.getExpiresAt());
+    }
+    if (refreshClaims != null && refreshClaims.familyId() != null) {
+      refreshTokenRegistry.revokeFamily(refreshClaims.tenantId(), refreshClaims.familyId());
+    }
   }
 
   private LoginResponse createLoginResponse(User user) {
-    String accessToken = tokenService.generateToken(user);
-    String refreshToken = tokenService.generateRefreshToken(user);
+    return createLoginResponse(user.getId(), user.getTenant().getId(), user.getRole());
+  }
+
+  private LoginResponse createLoginResponse(Long userId, Long tenantId, Role role) {
+    return createLoginResponse(userId, tenantId, role, UUID.randomUUID().toString());
+  }
+
+  private LoginResponse createLoginResponse(
+      Long userId, Long tenantId, Role role, String familyId) {
+    String accessToken = tokenService.generateToken(userId, tenantId, role);
+    String refreshToken = tokenService.generateRefreshToken(userId, tenantId, role, familyId);
     return new LoginResponse(
         accessToken,
         refreshToken,
@@ -130,14 +209,4 @@ public class AuthService {
         tokenService.getExpirationMinutes() * 60,
         tokenService.getRefreshExpirationMinutes() * 60);
   }
-
-  private String hashToken(String token) {
-    try {
-      MessageDigest digest = MessageDigest.getInstance("SHA-256");
-      byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
-      return Base64.getEncoder().encodeToString(hash);
-    } catch (NoSuchAlgorithmException e) {
-      throw new RuntimeException("Error hashing token", e);
-    }
-  }
 }
@@ -18,7 +18,11 @@ public class FulfillmentUrlService {
   private final VaultUiProperties uiProperties;
 
   public String generate(Request request) {
+    return generate(request.getId());
+  }
+
+  public String generate(Long requestId) {
     // e.g., https://vault.local/requests/tsid...
-    return uiProperties.baseUrl() + uiProperties.fulfillmentPath() + request.getId();
+    return uiProperties.baseUrl() + uiProperties.fulfillmentPath() + requestId;
   }
 }
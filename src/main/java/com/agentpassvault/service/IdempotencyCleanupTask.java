@@ -7,27 +7,89 @@
 package com.agentpassvault.service;
 
 import com.agentpassvault.repository.IdempotencyRecordRepository;
+import com.agentpassvault.security.IdempotencyStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Expires idempotency records in small chunks, each in its own transaction, so no single statement
+ * holds locks on a large range or ships one huge event to replicas. The pause between chunks gives
+ * replication and concurrent writers room to catch up.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class IdempotencyCleanupTask {
 
   private final IdempotencyRecordRepository repository;
+  private final int batchSize;
+  private final Duration pause;
+  private final Counter deletedRecords;
+  private final Counter batches;
+  private final Timer runs;
+
+  public IdempotencyCleanupTask(
+      IdempotencyRecordRepository repository,
+      @Value("${agentpassvault.idempotency.cleanup.batch-size}") int batchSize,
+      @Value("${agentpassvault.idempotency.cleanup.pause}") Duration pause,
+      MeterRegistry meterRegistry) {
+    this.repository = repository;
+    this.batchSize = batchSize;
+    this.pause = pause;
+    this.deletedRecords =
+        Counter.builder("agentpassvault.idempotency.cleanup.deleted")
+            .description("Expired idempotency records deleted")
+            .register(meterRegistry);
+    this.batches =
+        Counter.builder("agentpassvault.idempotency.cleanup.batches")
+            .description("Delete statements issued by the idempotency cleanup")
+            .register(meterRegistry);
+    this.runs =
+        Timer.builder("agentpassvault.idempotency.cleanup.duration")
+            .description("Time taken by a full idempotency cleanup run")
+            .register(meterRegistry);
+  }
 
-  // Run every hour
-  @Scheduled(fixedDelay = 3600000)
-  @Transactional
+  @Scheduled(fixedDelayString = "${agentpassvault.idempotency.cleanup.interval-ms}")
   public void cleanup() {
-    Instant threshold = Instant.now().minus(24, ChronoUnit.HOURS);
+    runs.record(this::deleteExpired);
+  }
+
+  private void deleteExpired() {
+    Instant threshold = Instant.now().minus(IdempotencyStore.RETENTION);
     log.debug("Cleaning up idempotency records older than {}", threshold);
-    repository.deleteByCreatedAtBefore(threshold);
+
+    long total = 0;
+    int deleted;
+    do {
+      deleted = repository.deleteExpiredBatch(threshold, batchSize);
+      batches.increment();
+      deletedRecords.increment(deleted);
+      total += deleted;
+    } while (deleted == batchSize && pauseBetweenBatches());
+
+    if (total > 0) {
+      log.info("Deleted {} expired idempotency records", total);
+    }
+  }
+
+  private boolean pauseBetweenBatches() {
+    if (pause.isZero()) {
+      return true;
+    }
+    try {
+      Thread.sleep(pause.toMillis());
+      return true;
+    } catch (InterruptedException e) {
+      // Shutting down; the next run picks up where this one stopped
+      Thread.currentThread().interrupt();
+      return false;
+    }
   }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.service;
+
+import com.agentpassvault.model.RefreshTokenRevocation;
+import com.agentpassvault.repository.RefreshTokenRevocationRepository;
+import com.agentpassvault.security.AfterCommit;
+import com.agentpassvault.service.TokenService.RefreshTokenClaims;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Decides whether a refresh token may still be used, without touching the database. Revocations
+ * are rows in {@code refresh_token_revocations}; every node keeps all unexpired ones in memory and
+ * polls the table for those written elsewhere.
+ *
+ * <p>Refresh tokens rotate: each refresh consumes the presented token and issues the next one of
+ * its family. A consumed token that comes back after {@code reuse-grace} means two parties hold
+ * the family, so the whole family is revoked. Consumed tokens are tracked per node; a token
+ * replayed against another node is only caught by its expiry or an explicit revocation.
+ */
+@Slf4j
+@Component
+public class RefreshTokenRegistry {
+
+  private final RefreshTokenRevocationRepository repository;
+  private final Duration refreshTtl;
+  private final Duration reuseGrace;
+  private final long graceSeconds;
+  private final Counter reuseDetected;
+
+  private final Map<String, Instant> revokedFamilies = new ConcurrentHashMap<>();
+  private final Map<Long, Instant> userCutoffs = new ConcurrentHashMap<>();
+  private final Map<Long, Instant> tenantCutoffs = new ConcurrentHashMap<>();
+  // Token id (the token hash for legacy tokens) -> when it was first used to refresh
+  private final Cache<String, Instant> consumed;
+  private final ReentrantLock pollLock = new ReentrantLock();
+
+  private long cursor = -1;
+
+  public RefreshTokenRegistry(
+      RefreshTokenRevocationRepository repository,
+      @Value("${agentpassvault.jwt.refresh-expiration-minutes}") long refreshExpirationMinutes,
+      @Value("${agentpassvault.jwt.refresh.reuse-grace}") Duration reuseGrace,
+      @Value("${agentpassvault.jwt.refresh.consumed-max-size}") long consumedMaxSize,
+      @Value("${agentpassvault.jwt.refresh.revocation-grace}") Duration revocationGrace,
+      MeterRegistry meterRegistry) {
+    this.repository = repository;
+    this.refreshTtl = Duration.ofMinutes(refreshExpirationMinutes);
+    this.reuseGrace = reuseGrace;
+    this.graceSeconds = revocationGrace.toSeconds();
+    this.consumed =
+        Caffeine.newBuilder().maximumSize(consumedMaxSize).expireAfterWrite(refreshTtl).build();
+    this.reuseDetected =
+        Counter.builder("agentpassvault.auth.refresh.reuse")
+            .description("Rotated-out refresh tokens presented again; their family was revoked")
+            .register(meterRegistry);
+    meterRegistry.gaugeMapSize(
+        "agentpassvault.auth.refresh.revoked-families", Tags.empty(), revokedFamilies);
+  }
+
+  @PostConstruct
+  void load() {
+    pollLock.lock();
+    try {
+      cursor = repository.findMaxId();
+      repository.findByExpiresAtAfter(Instant.now()).forEach(this::apply);
+    } finally {
+      pollLock.unlock();
+    }
+  }
+
+  public boolean isRevoked(RefreshTokenClaims claims) {
+    if (claims.familyId() != null && revokedFamilies.containsKey(claims.familyId())) {
+      return true;
+    }
+    Instant userCutoff = userCutoffs.get(claims.userId());
+    if (userCutoff != null && claims.issuedAt().isBefore(userCutoff)) {
+      return true;
+    }
+    Instant tenantCutoff = tenantCutoffs.get(claims.tenantId());
+    return tenantCutoff != null && claims.issuedAt().isBefore(tenantCutoff);
+  }
+
+  /**
+   * Records that {@code claims} is being exchanged for the next token of its family. Returns false
+   * when it was already exchanged longer than the reuse grace ago; the family is then revoked.
+   * Clients refreshing twice in quick succession, e.g. from two tabs, stay within the grace.
+   */
+  public boolean consume(RefreshTokenClaims claims) {
+    Instant now = Instant.now();
+    Instant firstUse = consumed.asMap().putIfAbsent(claims.tokenId(), now);
+    if (firstUse == null || !firstUse.plus(reuseGrace).isBefore(now)) {
+      return true;
+    }
+    reuseDetected.increment();
+    if (claims.familyId() == null) {
+      // A token from before families existed; the family it started is not known here
+      log.warn("Legacy refresh token of user {} reused", claims.userId());
+      return false;
+    }
+    log.warn(
+        "Refresh token reused; revoking family {} of user {}", claims.familyId(), claims.userId());
+    revokeFamily(claims.tenantId(), claims.familyId());
+    return false;
+  }
+
+  /** Revokes every token of one family, e.g. on logout. */
+  public void revokeFamily(Long tenantId, String familyId) {
+    save(RefreshTokenRevocation.forFamily(tenantId, familyId, Instant.now().plus(refreshTtl)));
+  }
+
+  /** Revokes every refresh token of a user issued so far, e.g. when its credentials change. */
+  public void revokeUser(Long tenantId, Long userId) {
+    save(RefreshTokenRevocation.forTokensIssuedBefore(tenantId, userId, cutoff(), expiry()));
+  }
+
+  /** Revokes every refresh token of a tenant issued so far. */
+  public void revokeTenant(Long tenantId) {
+    save(RefreshTokenRevocation.forTokensIssuedBefore(tenantId, null, cutoff(), expiry()));
+  }
+
+  /** Applies revocations committed by other nodes since the last poll. */
+  @Scheduled(fixedDelayString = "${agentpassvault.jwt.refresh.revocation-poll-interval-ms}")
+  public void poll() {
+    pollLock.lock();
+    try {
+      for (RefreshTokenRevocation revocation : repository.findPending(cursor, graceSeconds)) {
+        cursor = Math.max(cursor, revocation.getId());
+        apply(revocation);
+      }
+    } finally {
+      pollLock.unlock();
+    }
+  }
+
+  // Run every hour
+  @Scheduled(fixedDelay = 3600000)
+  @Transactional
+  public void purge() {
+    Instant now = Instant.now();
+    int deleted = repository.deleteExpired(now);
+    revokedFamilies.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+    // A cutoff is only needed while tokens issued before it can still be alive
+    userCutoffs.values().removeIf(cutoff -> !cutoff.plus(refreshTtl).isAfter(now));
+    tenantCutoffs.values().removeIf(cutoff -> !cutoff.plus(refreshTtl).isAfter(now));
+    log.debug("Deleted {} expired refresh token revocations", deleted);
+  }
+
+  private void save(RefreshTokenRevocation revocation) {
+    // Applied here once the row commits, so a rolled-back revocation leaves no trace; other nodes
+    // pick it up through the poll
+    RefreshTokenRevocation saved = repository.save(revocation);
+    AfterCommit.run(() -> apply(saved));
+  }
+
+  private void apply(RefreshTokenRevocation revocation) {
+    if (revocation.getFamilyId() != null) {
+      revokedFamilies.put(revocation.getFamilyId(), revocation.getExpiresAt());
+    } else if (revocation.getUserId() != null) {
+      userCutoffs.merge(
+          revocation.getUserId(), revocation.getIssuedBefore(), RefreshTokenRegistry::later);
+    } else {
+      tenantCutoffs.merge(
+          revocation.getTenantId(), revocation.getIssuedBefore(), RefreshTokenRegistry::later);
+    }
+  }
+
+  // Compared against the millisecond issue time carried by the token id
+  private static Instant cutoff() {
+    return Instant.now().truncatedTo(ChronoUnit.MILLIS);
+  }
+
+  private Instant expiry() {
+    return cutoff().plus(refreshTtl);
+  }
+
+  private static Instant later(Instant a, Instant b) {
+    return a.isAfter(b) ? a : b;
+  }
+}
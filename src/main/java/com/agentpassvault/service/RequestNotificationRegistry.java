@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.service;
+
+import com.agentpassvault.cache.CacheInvalidationListener;
+import com.agentpassvault.cache.CacheInvalidationPublisher;
+import com.agentpassvault.dto.RequestResponse;
+import com.agentpassvault.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-process registry of clients waiting for a request to leave {@code pending}. Parked waiters
+ * hold no thread and cost no queries: {@link RequestService} hands over the new state once the
+ * status change commits. Other nodes learn about the change through the cache invalidation bus,
+ * which is why this registry listens on it like a cache, and reload the request once for all of
+ * their local waiters.
+ */
+@Slf4j
+@Component
+public class RequestNotificationRegistry implements CacheInvalidationListener {
+
+  private static final String CHANNEL_NAME = "requestStatus";
+
+  private final Map<Long, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+  private final CacheInvalidationPublisher invalidationPublisher;
+  // Resolved lazily: RequestService depends on this registry
+  private final ObjectProvider<RequestService> requestService;
+
+  public RequestNotificationRegistry(
+      CacheInvalidationPublisher invalidationPublisher,
+      ObjectProvider<RequestService> requestService,
+      MeterRegistry meterRegistry) {
+    this.invalidationPublisher = invalidationPublisher;
+    this.requestService = requestService;
+    Gauge.builder("agentpassvault.requests.waiters", this, RequestNotificationRegistry::waiterCount)
+        .description("Clients waiting for a request status change on this node")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Registers {@code callback} for the next state change of the request. Returns the handle that
+   * unregisters it, which callers run when their client goes away.
+   */
+  public Runnable subscribe(Long tenantId, Long requestId, Consumer<RequestResponse> callback) {
+    Waiter waiter = new Waiter(tenantId, callback);
+    waiters.computeIfAbsent(requestId, id -> ConcurrentHashMap.newKeySet()).add(waiter);
+    return () ->
+        waiters.computeIfPresent(
+            requestId,
+            (id, registered) -> {
+              registered.remove(waiter);
+              return registered.isEmpty() ? null : registered;
+            });
+  }
+
+  /**
+   * Announces a status change made in the current transaction. Local waiters are completed after
+   * it commits; other nodes are told through the invalidation bus, in the same transaction.
+   */
+  public void publish(Long tenantId, Long requestId, RequestResponse response) {
+    invalidationPublisher.publish(CHANNEL_NAME, tenantId, requestId.toString());
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              complete(tenantId, requestId, response);
+            }
+          });
+    } else {
+      complete(tenantId, requestId, response);
+    }
+  }
+
+  public int waiterCount() {
+    return waiters.values().stream().mapToInt(Set::size).sum();
+  }
+
+  @Override
+  public String cacheName() {
+    return CHANNEL_NAME;
+  }
+
+  @Override
+  public void invalidateLocally(Long tenantId, String key) {
+    if (key == null) {
+      return;
+    }
+    Long requestId = Long.valueOf(key);
+    if (!waiters.containsKey(requestId)) {
+      return;
+    }
+    try {
+      complete(tenantId, requestId, requestService.getObject().getRequest(tenantId, requestId));
+    } catch (ResourceNotFoundException e) {
+      log.debug("Request {} is gone; its waiters will time out", requestId);
+    }
+  }
+
+  private void complete(Long tenantId, Long requestId, RequestResponse response) {
+    Set<Waiter> registered = waiters.remove(requestId);
+    if (registered == null) {
+      return;
+    }
+    for (Waiter waiter : registered) {
+      if (waiter.tenantId().equals(tenantId)) {
+        waiter.callback().accept(response);
+      }
+    }
+  }
+
+  private record Waiter(Long tenantId, Consumer<RequestResponse> callback) {}
+}
@@ -6,19 +6,34 @@
  */
 package com.agentpassvault.service;
 
+import com.agentpassvault.config.RequestWaitProperties;
 import com.agentpassvault.dto.CreateRequestRequest;
+import com.agentpassvault.dto.RequestFilter;
+import com.agentpassvault.dto.RequestPage;
 import com.agentpassvault.dto.RequestResponse;
+import com.agentpassvault.dto.RequestSummaryView;
 import com.agentpassvault.dto.UpdateRequestRequest;
 import com.agentpassvault.exception.ResourceNotFoundException;
 import com.agentpassvault.model.*;
 import com.agentpassvault.repository.*;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Service
 @RequiredArgsConstructor
@@ -26,16 +41,35 @@ public class RequestService {
 
   private static final Logger log = LoggerFactory.getLogger(RequestService.class);
 
+  private static final int MAX_PAGE_SIZE = 500;
+
   private final RequestRepository requestRepository;
   private final SecretRepository secretRepository;
   private final TenantRepository tenantRepository;
   private final UserRepository userRepository;
   private final FulfillmentUrlService fulfillmentUrlService;
+  private final RequestNotificationRegistry notificationRegistry;
+  private final RequestWaitProperties waitProperties;
+
+  public List<RequestResponse> listRequests(Long tenantId, RequestFilter filter) {
+    return mapSummaries(
+        tenantId, filter, findSummaries(tenantId, filter, null, Limit.unlimited()));
+  }
+
+  public RequestPage listRequestsPage(Long tenantId, RequestFilter filter, Long cursor, int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
 
-  public List<RequestResponse> listRequests(Long tenantId) {
-    return requestRepository.findAllByTenantId(tenantId).stream()
-        .map(this::mapToResponse)
-        .collect(Collectors.toList());
+    // Fetch one extra row to find out whether another page exists
+    List<RequestSummaryView> rows = findSummaries(tenantId, filter, cursor, Limit.of(limit + 1));
+    String nextCursor = null;
+    if (rows.size() > limit) {
+      rows = rows.subList(0, limit);
+      nextCursor = rows.get(limit - 1).requestId().toString();
+    }
+
+    return new RequestPage(mapSummaries(tenantId, filter, rows), nextCursor);
   }
 
   @Transactional
@@ -47,7 +81,7 @@ public class RequestService {
 
     User requester =
         userRepository
-            .findById(requesterId)
+            .findByIdAndTenant_Id(requesterId, tenantId)
             .orElseThrow(() -> new IllegalArgumentException("Requester not found"));
 
     Request request = new Request();
@@ -81,6 +115,59 @@ public class RequestService {
     return mapToResponse(findRequest(tenantId, requestId));
   }
 
+  /**
+   * Long-polls a request: completes as soon as it leaves {@code pending}, or with the still pending
+   * state once {@code timeout} (capped by the configured maximum) runs out. No thread is held and
+   * no query is made while waiting.
+   */
+  public DeferredResult<RequestResponse> awaitRequest(
+      Long tenantId, Long requestId, Duration timeout) {
+    DeferredResult<RequestResponse> result =
+        new DeferredResult<>(effectiveWaitTimeout(timeout).toMillis());
+    // Subscribe before reading the state so a change in between is not missed
+    Runnable unsubscribe = notificationRegistry.subscribe(tenantId, requestId, result::setResult);
+    result.onCompletion(unsubscribe);
+
+    RequestResponse current;
+    try {
+      current = getRequest(tenantId, requestId);
+    } catch (RuntimeException e) {
+      unsubscribe.run();
+      throw e;
+    }
+    if (current.status() != RequestStatus.pending) {
+      result.setResult(current);
+    } else {
+      result.onTimeout(() -> result.setResult(current));
+    }
+    return result;
+  }
+
+  /**
+   * Streams a request's state as Server-Sent Events: the current state first, then the change that
+   * takes it out of {@code pending}, after which the stream ends.
+   */
+  public SseEmitter streamRequest(Long tenantId, Long requestId) {
+    SseEmitter emitter = new SseEmitter(waitProperties.streamTimeout().toMillis());
+    StreamState state = new StreamState();
+    Runnable unsubscribe =
+        notificationRegistry.subscribe(
+            tenantId, requestId, response -> sendRequestEvent(emitter, state, response));
+    emitter.onCompletion(unsubscribe);
+    emitter.onTimeout(unsubscribe);
+    emitter.onError(e -> unsubscribe.run());
+
+    RequestResponse current;
+    try {
+      current = getRequest(tenantId, requestId);
+    } catch (RuntimeException e) {
+      unsubscribe.run();
+      throw e;
+    }
+    sendRequestEvent(emitter, state, current);
+    return emitter;
+  }
+
   @Transactional
   public RequestResponse updateRequestStatus(
       Long tenantId, Long requestId, UpdateRequestRequest dto) {
@@ -93,12 +180,9 @@ public class RequestService {
       }
       Long secretId = Long.valueOf(dto.secretId());
       // Verify secret exists and belongs to tenant
-      @SuppressWarnings("unused")
-      Secret unused =
-          secretRepository
-              .findById(secretId)
-              .filter(s -> s.getTenant().getId().equals(tenantId))
-              .orElseThrow(() -> new ResourceNotFoundException("Secret not found"));
+      if (!secretRepository.existsByIdAndTenant_Id(secretId, tenantId)) {
+        throw new ResourceNotFoundException("Secret not found");
+      }
 
       request.setStatus(RequestStatus.fulfilled);
       request.setMappedSecretId(secretId);
@@ -113,7 +197,9 @@ public class RequestService {
           "Invalid status update. Only fulfilled or rejected allowed.");
     }
 
-    return mapToResponse(requestRepository.save(request));
+    RequestResponse response = mapToResponse(requestRepository.save(request));
+    notificationRegistry.publish(tenantId, requestId, response);
+    return response;
   }
 
   @Transactional
@@ -125,7 +211,45 @@ public class RequestService {
     validatePending(request);
 
     request.setStatus(RequestStatus.abandoned);
-    requestRepository.save(request);
+    Request saved = requestRepository.save(request);
+    notificationRegistry.publish(tenantId, requestId, mapToResponse(saved));
+  }
+
+  private Duration effectiveWaitTimeout(Duration requested) {
+    if (requested == null) {
+      return waitProperties.defaultTimeout();
+    }
+    return requested.compareTo(waitProperties.maxTimeout()) > 0
+        ? waitProperties.maxTimeout()
+        : requested;
+  }
+
+  // Sends one state; a state other than pending is the last event of the stream
+  private void sendRequestEvent(SseEmitter emitter, StreamState state, RequestResponse response) {
+    // A lock rather than synchronized: sending blocks on the socket, possibly on a virtual thread
+    state.lock.lock();
+    try {
+      if (state.finished) {
+        return;
+      }
+      boolean last = response.status() != RequestStatus.pending;
+      state.finished = last;
+      try {
+        emitter.send(
+            SseEmitter.event()
+                .name("request")
+                .id(response.requestId())
+                .data(response, MediaType.APPLICATION_JSON));
+        if (last) {
+          emitter.complete();
+        }
+      } catch (IOException e) {
+        state.finished = true;
+        emitter.completeWithError(e);
+      }
+    } finally {
+      state.lock.unlock();
+    }
   }
 
   private Request findRequest(Long tenantId, Long requestId) {
@@ -140,6 +264,59 @@ public class RequestService {
     }
   }
 
+  private List<RequestSummaryView> findSummaries(
+      Long tenantId, RequestFilter filter, Long cursor, Limit limit) {
+    return requestRepository.findSummaries(
+        tenantId,
+        filter.status(),
+        filter.type(),
+        filter.requesterId(),
+        cursor != null ? cursor : 0L,
+        limit);
+  }
+
+  private List<RequestResponse> mapSummaries(
+      Long tenantId, RequestFilter filter, List<RequestSummaryView> rows) {
+    // Secret metadata is opt-in and then loaded with one query for the whole page
+    Map<Long, Map<String, Object>> secretMetadata = Map.of();
+    if (filter.includeSecretMetadata()) {
+      Set<Long> secretIds =
+          rows.stream()
+              .map(RequestSummaryView::secretId)
+              .filter(Objects::nonNull)
+              .collect(Collectors.toSet());
+      if (!secretIds.isEmpty()) {
+        secretMetadata =
+            secretRepository.findAllByIdInAndTenant_Id(secretIds, tenantId).stream()
+                .filter(secret -> secret.getMetadata() != null)
+                .collect(Collectors.toMap(Secret::getId, Secret::getMetadata));
+      }
+    }
+
+    List<RequestResponse> responses = new ArrayList<>(rows.size());
+    for (RequestSummaryView row : rows) {
+      responses.add(
+          new RequestResponse(
+              row.requestId().toString(),
+              row.requesterId().toString(),
+              row.status(),
+              row.type(),
+              row.name(),
+              row.context(),
+              row.requiredMetadata(),
+              row.requiredFieldsInSecretValue(),
+              row.secretId() != null ? row.secretId().toString() : null,
+              row.secretName(),
+              row.secretId() != null ? secretMetadata.get(row.secretId()) : null,
+              row.mappedSecretId() != null ? row.mappedSecretId().toString() : null,
+              row.rejectionReason(),
+              fulfillmentUrlService.generate(row.requestId()),
+              row.createdAt(),
+              row.updatedAt()));
+    }
+    return responses;
+  }
+
   private RequestResponse mapToResponse(Request request) {
     Secret requestedSecret = request.getSecret();
 
@@ -161,4 +338,10 @@ public class RequestService {
         request.getCreatedAt(),
         request.getUpdatedAt());
   }
+
+  // Per-stream guard so a change and the initial state are never sent concurrently or twice
+  private static final class StreamState {
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean finished;
+  }
 }
@@ -6,6 +6,7 @@
  */
 package com.agentpassvault.service;
 
+import com.agentpassvault.cache.SecretCache;
 import com.agentpassvault.dto.*;
 import com.agentpassvault.exception.ResourceNotFoundException;
 import com.agentpassvault.model.*;
@@ -14,13 +15,19 @@ import com.agentpassvault.repository.SecretRepository;
 import com.agentpassvault.repository.TenantRepository;
 import com.agentpassvault.repository.UserRepository;
 import com.agentpassvault.security.AgentPassVaultAuthentication;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,12 +39,20 @@ import tools.jackson.databind.ObjectMapper;
 public class SecretService {
 
   private static final int MAX_METADATA_SIZE_BYTES = 8192; // 8 KB
+  private static final int MAX_PAGE_SIZE = 500;
+  private static final int STREAM_CHUNK_SIZE = 500;
+  private static final int DEFAULT_SEARCH_LIMIT = 100;
+  // Must match the server's ngram_token_size used by the secrets.name FULLTEXT index
+  private static final int NGRAM_TOKEN_SIZE = 2;
+  // Width of secret_metadata_kv.meta_key
+  private static final int MAX_INDEXED_METADATA_KEY_LENGTH = 255;
 
   private final SecretRepository secretRepository;
   private final TenantRepository tenantRepository;
   private final LeaseRepository leaseRepository;
   private final UserRepository userRepository;
   private final ObjectMapper objectMapper;
+  private final SecretCache secretCache;
 
   @Transactional
   public SecretMetadataResponse createSecret(Long tenantId, CreateSecretRequest request) {
@@ -57,6 +72,7 @@ public class SecretService {
     secret.setSchema(request.schema());
 
     Secret saved = secretRepository.save(secret);
+    secretRepository.indexMetadata(saved.getId());
 
     return mapToMetadataResponse(saved);
   }
@@ -66,8 +82,7 @@ public class SecretService {
       Long tenantId, Long secretId, UpdateSecretRequest request) {
     Secret secret =
         secretRepository
-            .findById(secretId)
-            .filter(s -> s.getTenant().getId().equals(tenantId))
+            .findByIdAndTenant_Id(secretId, tenantId)
             .orElseThrow(() -> new ResourceNotFoundException("Secret not found"));
 
     if (request.name() != null) {
@@ -76,8 +91,7 @@ public class SecretService {
     if (request.encryptedValue() != null) {
       secret.setEncryptedData(request.encryptedValue());
       // Delete all existing leases for this secret as they are now invalid
-      List<Lease> leases = leaseRepository.findBySecret_Id(secretId);
-      leaseRepository.deleteAll(leases);
+      leaseRepository.deleteAllBySecretId(secretId);
     }
     if (request.metadata() != null) {
       validateMetadataSize(request.metadata());
@@ -86,14 +100,22 @@ public class SecretService {
     validateSchema(request.schema());
     secret.setSchema(request.schema());
 
-    if (request.updatedLeases() != null) {
-      for (UpdateSecretRequest.LeaseUpdateRequest leaseUpdate : request.updatedLeases()) {
-        User agent =
-            userRepository
-                .findById(Long.valueOf(leaseUpdate.agentId()))
-                .filter(u -> u.getTenant().getId().equals(tenantId))
-                .orElseThrow(() -> new IllegalArgumentException("Agent not found"));
+    if (request.updatedLeases() != null && !request.updatedLeases().isEmpty()) {
+      Set<Long> agentIds =
+          request.updatedLeases().stream()
+              .map(leaseUpdate -> Long.valueOf(leaseUpdate.agentId()))
+              .collect(Collectors.toSet());
+      Map<Long, User> agents =
+          userRepository.findAllByIdInAndTenant_Id(agentIds, tenantId).stream()
+              .collect(Collectors.toMap(User::getId, Function.identity()));
+      if (agents.size() != agentIds.size()) {
+        throw new IllegalArgumentException("Agent not found");
+      }
 
+      // Inserted as one JDBC batch on flush
+      List<Lease> leases = new ArrayList<>(request.updatedLeases().size());
+      for (UpdateSecretRequest.LeaseUpdateRequest leaseUpdate : request.updatedLeases()) {
+        User agent = agents.get(Long.valueOf(leaseUpdate.agentId()));
         Lease lease = new Lease();
         lease.setSecret(secret);
         lease.setAgent(agent);
@@ -101,11 +123,17 @@ public class SecretService {
         lease.setEncryptedData(leaseUpdate.encryptedData());
         // Note: expiry is not updated here, it would need to be added to LeaseUpdateRequest if
         // needed
-        leaseRepository.save(lease);
+        leases.add(lease);
       }
+      leaseRepository.saveAll(leases);
     }
 
     Secret saved = secretRepository.save(secret);
+    secretCache.evict(tenantId, secretId);
+    if (request.metadata() != null) {
+      secretRepository.deleteMetadataIndex(saved.getId());
+      secretRepository.indexMetadata(saved.getId());
+    }
     return mapToMetadataResponse(saved);
   }
 
@@ -113,19 +141,18 @@ public class SecretService {
   public void createLease(Long tenantId, Long secretId, CreateLeaseRequest request) {
     Secret secret =
         secretRepository
-            .findById(secretId)
-            .filter(s -> s.getTenant().getId().equals(tenantId))
+            .findByIdAndTenant_Id(secretId, tenantId)
             .orElseThrow(() -> new ResourceNotFoundException("Secret not found"));
 
     User agent =
         userRepository
-            .findById(Long.valueOf(request.agentId()))
-            .filter(u -> u.getTenant().getId().equals(tenantId))
+            .findByIdAndTenant_Id(Long.valueOf(request.agentId()), tenantId)
             .orElseThrow(() -> new IllegalArgumentException("Agent not found"));
 
     Lease lease =
         leaseRepository
-            .findBySecret_IdAndAgent_IdAndPublicKey(secretId, agent.getId(), request.publicKey())
+            .findBySecret_IdAndAgent_IdAndPublicKeyFingerprint(
+                secretId, agent.getId(), PublicKeyFingerprint.of(request.publicKey()))
             .orElse(new Lease());
 
     if (lease.getId() == null) {
@@ -140,15 +167,88 @@ public class SecretService {
     leaseRepository.save(lease);
   }
 
-  public List<LeaseResponse> listLeases(Long tenantId, Long secretId, Long agentId) {
-    // Verify secret exists and belongs to tenant
-    @SuppressWarnings("unused")
+  /**
+   * Creates or refreshes leases of one secret for many agents. Agents are resolved with a single
+   * query and the leases are flushed as JDBC batches. Entries naming an unknown agent are reported
+   * as failed without affecting the others.
+   */
+  @Transactional
+  public BatchCreateLeaseResponse createLeases(
+      Long tenantId, Long secretId, List<CreateLeaseRequest> requests) {
     Secret secret =
         secretRepository
-            .findById(secretId)
-            .filter(s -> s.getTenant().getId().equals(tenantId))
+            .findByIdAndTenant_Id(secretId, tenantId)
             .orElseThrow(() -> new ResourceNotFoundException("Secret not found"));
 
+    Set<Long> agentIds =
+        requests.stream().map(r -> Long.valueOf(r.agentId())).collect(Collectors.toSet());
+    Map<Long, User> agents =
+        userRepository.findAllByIdInAndTenant_Id(agentIds, tenantId).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+
+    Map<LeaseKey, Lease> leases = new HashMap<>();
+    if (!agents.isEmpty()) {
+      for (Lease lease : leaseRepository.findBySecret_IdAndAgent_IdIn(secretId, agents.keySet())) {
+        leases.put(new LeaseKey(lease.getAgent().getId(), lease.getPublicKeyFingerprint()), lease);
+      }
+    }
+
+    List<Lease> touched = new ArrayList<>(requests.size());
+    List<Boolean> created = new ArrayList<>(requests.size());
+    for (CreateLeaseRequest request : requests) {
+      User agent = agents.get(Long.valueOf(request.agentId()));
+      if (agent == null) {
+        touched.add(null);
+        created.add(false);
+        continue;
+      }
+
+      LeaseKey key = new LeaseKey(agent.getId(), PublicKeyFingerprint.of(request.publicKey()));
+      Lease lease = leases.get(key);
+      created.add(lease == null);
+      if (lease == null) {
+        lease = new Lease();
+        lease.setSecret(secret);
+        lease.setAgent(agent);
+        lease.setPublicKey(request.publicKey());
+        leases.put(key, lease);
+      }
+      lease.setEncryptedData(request.encryptedData());
+      lease.setExpiry(request.expiry());
+      touched.add(lease);
+    }
+
+    leaseRepository.saveAll(leases.values());
+
+    List<BatchCreateLeaseResponse.Result> results = new ArrayList<>(requests.size());
+    for (int i = 0; i < requests.size(); i++) {
+      Lease lease = touched.get(i);
+      String agentId = requests.get(i).agentId();
+      if (lease == null) {
+        results.add(
+            new BatchCreateLeaseResponse.Result(
+                i, agentId, null, BatchCreateLeaseResponse.Status.FAILED, "Agent not found"));
+      } else {
+        results.add(
+            new BatchCreateLeaseResponse.Result(
+                i,
+                agentId,
+                lease.getId().toString(),
+                created.get(i)
+                    ? BatchCreateLeaseResponse.Status.CREATED
+                    : BatchCreateLeaseResponse.Status.UPDATED,
+                null));
+      }
+    }
+    return new BatchCreateLeaseResponse(results);
+  }
+
+  public List<LeaseResponse> listLeases(Long tenantId, Long secretId, Long agentId) {
+    // Verify secret exists and belongs to tenant
+    if (!secretRepository.existsByIdAndTenant_Id(secretId, tenantId)) {
+      throw new ResourceNotFoundException("Secret not found");
+    }
+
     List<Lease> leases;
     if (agentId != null) {
       leases = leaseRepository.findBySecret_IdAndAgent_Id(secretId, agentId);
@@ -160,149 +260,223 @@ public class SecretService {
   }
 
   @Transactional
-  public void deleteLease(Long tenantId, Long secretId, Long agentId) {
-    // Verify secret exists and belongs to tenant
-    @SuppressWarnings("unused")
-    Secret secret =
-        secretRepository
-            .findById(secretId)
-            .filter(s -> s.getTenant().getId().equals(tenantId))
-            .orElseThrow(() -> new ResourceNotFoundException("Secret not found"));
-
-    // Verify agent exists and belongs to tenant
-    @SuppressWarnings("unused")
-    User agent =
-        userRepository
-            .findById(agentId)
-            .filter(u -> u.getTenant().getId().equals(tenantId))
-            .orElseThrow(() -> new IllegalArgumentException("Agent not found"));
+  public RevokeLeasesResponse deleteLease(Long tenantId, Long secretId, Long agentId) {
+    RevokeLeasesResponse response = deleteLeases(tenantId, secretId, List.of(agentId));
+    // A revoked lease already proves the agent is in the tenant, so only a miss is probed
+    if (response.revoked() == 0 && !userRepository.existsByIdAndTenant_Id(agentId, tenantId)) {
+      throw new IllegalArgumentException("Agent not found");
+    }
+    return response;
+  }
 
-    // Design says DELETE /api/v1/secrets/:id/leases/:agentId
-    // But an agent might have multiple leases with different public keys.
-    // To keep it simple, we delete all leases for that agent for that secret.
-    List<Lease> leases =
-        leaseRepository.findBySecret_Id(secretId).stream()
-            .filter(l -> l.getAgent().getId().equals(agentId))
-            .toList();
+  /**
+   * Revokes every lease the given agents hold on the secret, whatever public key it was issued
+   * for, with a single DELETE. Agents without a lease are ignored.
+   */
+  @Transactional
+  public RevokeLeasesResponse deleteLeases(Long tenantId, Long secretId, List<Long> agentIds) {
+    // Verify secret exists and belongs to tenant
+    if (!secretRepository.existsByIdAndTenant_Id(secretId, tenantId)) {
+      throw new ResourceNotFoundException("Secret not found");
+    }
 
-    leaseRepository.deleteAll(leases);
+    int revoked = leaseRepository.deleteAllBySecretIdAndAgentIdIn(tenantId, secretId, agentIds);
+    return new RevokeLeasesResponse(revoked);
   }
 
   public SecretResponse getSecret(AgentPassVaultAuthentication auth, Long secretId) {
     Long tenantId = auth.getTenantId();
-    Secret secret =
-        secretRepository
-            .findById(secretId)
-            .filter(s -> s.getTenant().getId().equals(tenantId))
-            .orElseThrow(() -> new ResourceNotFoundException("Secret not found"));
 
     if (Role.ADMIN.equals(auth.getRole())) {
-      return mapToResponse(secret, secret.getEncryptedData());
+      return secretCache
+          .get(
+              tenantId,
+              secretId,
+              () ->
+                  secretRepository
+                      .findByIdAndTenant_Id(secretId, tenantId)
+                      .map(s -> mapToResponse(s, s.getEncryptedData())))
+          .orElseThrow(() -> new ResourceNotFoundException("Secret not found"));
     }
 
     // Agent access
-    // Find lease for this agent with its CURRENT public key
-    User agent =
-        userRepository
-            .findById((Long) auth.getPrincipal())
-            .orElseThrow(() -> new AccessDeniedException("Agent not found"));
-
-    String currentPublicKey = agent.getPublicKey();
-    if (currentPublicKey == null) {
-      throw new AccessDeniedException("Agent has no registered public key");
-    }
-
+    // Resolve the secret together with the lease for the agent's CURRENT public key
     return leaseRepository
-        .findBySecret_IdAndAgent_IdAndPublicKey(secretId, agent.getId(), currentPublicKey)
-        .map(lease -> mapToResponse(secret, lease.getEncryptedData()))
+        .findLeasedSecret(tenantId, secretId, (Long) auth.getPrincipal())
+        .map(this::mapToResponse)
         .orElseThrow(
-            () ->
-                new AccessDeniedException(
-                    "No valid lease found for this secret and current public key"));
+            () -> {
+              if (!secretRepository.existsByIdAndTenant_Id(secretId, tenantId)) {
+                return new ResourceNotFoundException("Secret not found");
+              }
+              if (!userRepository.existsByIdAndTenant_IdAndPublicKeyFingerprintIsNotNull(
+                  (Long) auth.getPrincipal(), tenantId)) {
+                return new AccessDeniedException("Agent has no registered public key");
+              }
+              return new AccessDeniedException(
+                  "No valid lease found for this secret and current public key");
+            });
   }
 
   @Transactional
   public void deleteSecret(Long tenantId, Long secretId) {
     Secret secret =
         secretRepository
-            .findById(secretId)
-            .filter(s -> s.getTenant().getId().equals(tenantId))
+            .findByIdAndTenant_Id(secretId, tenantId)
             .orElseThrow(() -> new ResourceNotFoundException("Secret not found"));
 
     secretRepository.delete(secret);
+    secretCache.evict(tenantId, secretId);
   }
 
-  @SuppressWarnings("unchecked")
-  public List<SecretMetadataResponse> searchSecrets(Long tenantId, SearchSecretRequest request) {
-    boolean hasName = request.name() != null && !request.name().isBlank();
-    boolean hasMetadata = request.metadata() != null && !request.metadata().isEmpty();
-
-    if (hasName) {
-      if (hasMetadata) {
-        String metadataJson = serializeMetadata(request.metadata());
-        return secretRepository
-            .findByNameAndMetadataAndTenantId(request.name(), metadataJson, tenantId)
-            .stream()
-            .map(this::mapToMetadataResponse)
-            .collect(Collectors.toList());
-      }
-
-      return secretRepository
-          .findByNameContainingIgnoreCaseAndTenantId(request.name(), tenantId)
-          .stream()
-          .map(this::mapToMetadataResponse)
-          .collect(Collectors.toList());
+  /**
+   * Searches by name and/or metadata. Without {@code limit} or {@code cursor} every match is
+   * returned, as before; otherwise one page at a time. Ranked name searches page by offset into the
+   * ranking; the others page by id, the same way as the secret listing.
+   */
+  public SecretMetadataPage searchSecrets(Long tenantId, SearchSecretRequest request) {
+    int limit = request.limit() != null ? request.limit() : DEFAULT_SEARCH_LIMIT;
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
     }
+    long cursor = parseSearchCursor(request.cursor());
 
-    if (hasMetadata) {
+    // Double quotes would end the boolean-mode phrase early; nothing else is special inside it
+    String name = request.name() != null ? request.name().replace("\"", "").trim() : "";
+    boolean hasName = !name.isEmpty();
+    boolean hasMetadata = request.metadata() != null && !request.metadata().isEmpty();
+    boolean useFullText = name.codePointCount(0, name.length()) >= NGRAM_TOKEN_SIZE;
+    String phrase = "\"" + name + "\"";
+
+    // Fetch one extra row to find out whether another page exists
+    boolean paged = request.limit() != null || request.cursor() != null;
+    int fetch = paged ? limit + 1 : Integer.MAX_VALUE;
+    List<Secret> secrets;
+    if (hasName && hasMetadata) {
+      String metadataJson = serializeMetadata(request.metadata());
+      secrets =
+          useFullText
+              ? secretRepository.searchByNameAndMetadata(
+                  phrase, metadataJson, tenantId, fetch, cursor)
+              : secretRepository.findByNameAndMetadataAndTenantId(
+                  name, metadataJson, tenantId, fetch, cursor);
+    } else if (hasName) {
+      secrets =
+          useFullText
+              ? secretRepository.searchByName(phrase, tenantId, fetch, cursor)
+              : secretRepository.findByNameContainingIgnoreCaseAndTenantId(
+                  name, tenantId, fetch, cursor);
+    } else if (hasMetadata) {
       String metadataJson = serializeMetadata(request.metadata());
-      return secretRepository.findByMetadataAndTenantId(metadataJson, tenantId).stream()
-          .map(this::mapToMetadataResponse)
-          .collect(Collectors.toList());
+      secrets =
+          isIndexableMetadata(request.metadata())
+              ? secretRepository.findByIndexedMetadataAndTenantId(
+                  metadataJson, tenantId, cursor, fetch)
+              : secretRepository.findByMetadataAndTenantId(metadataJson, tenantId, cursor, fetch);
+    } else {
+      secrets = secretRepository.findPageByTenantId(tenantId, cursor, Limit.of(fetch));
     }
 
-    return secretRepository.findAllByTenantId(tenantId).stream()
-        .map(this::mapToMetadataResponse)
-        .collect(Collectors.toList());
+    String nextCursor = null;
+    if (paged && secrets.size() > limit) {
+      secrets = secrets.subList(0, limit);
+      nextCursor =
+          hasName
+              ? String.valueOf(cursor + limit)
+              : secrets.get(limit - 1).getId().toString();
+    }
+    return new SecretMetadataPage(
+        secrets.stream().map(this::mapToMetadataResponse).collect(Collectors.toList()),
+        nextCursor);
+  }
+
+  private static long parseSearchCursor(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return 0L;
+    }
+    try {
+      long value = Long.parseLong(cursor);
+      if (value >= 0) {
+        return value;
+      }
+    } catch (NumberFormatException e) {
+      // Reported below
+    }
+    throw new IllegalArgumentException("Invalid cursor");
   }
 
   public List<SecretDetailsResponse> listAllSecretsForPrincipal(
       AgentPassVaultAuthentication principal) {
-    Long tenantId = principal.getTenantId();
-    List<Secret> secrets = secretRepository.findAllByTenantId(tenantId);
-    List<Long> secretIds = secrets.stream().map(Secret::getId).collect(Collectors.toList());
+    List<Secret> secrets = secretRepository.findAllByTenantId(principal.getTenantId());
+    return mapToDetailsResponses(resolveLeaseScope(principal), secrets);
+  }
 
-    if (secretIds.isEmpty()) {
-      return Collections.emptyList();
+  public SecretDetailsPage listSecretsPageForPrincipal(
+      AgentPassVaultAuthentication principal, Long cursor, int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
     }
 
-    List<Lease> leases;
-    if (principal.getRole() == Role.ADMIN) {
-      leases = leaseRepository.findAllBySecretIdInAndExpiresAtAfter(secretIds, Instant.now());
-    } else {
-      User agent =
-          userRepository
-              .findById((Long) principal.getPrincipal())
-              .orElseThrow(() -> new AccessDeniedException("Agent not found"));
-
-      leases =
-          leaseRepository.findAllByAgentIdAndTenantIdAndExpiresAtAfter(
-              agent.getId(), tenantId, Instant.now());
-
-      // Filter out leases that do not match the agent's current public key
-      String currentPublicKey = agent.getPublicKey();
-      if (currentPublicKey != null) {
-        leases =
-            leases.stream()
-                .filter(l -> currentPublicKey.equals(l.getPublicKey()))
-                .collect(Collectors.toList());
-      } else {
-        leases = Collections.emptyList(); // If no public key is registered, no leases are valid
+    // Fetch one extra row to find out whether another page exists
+    List<Secret> secrets =
+        secretRepository.findPageByTenantId(
+            principal.getTenantId(), cursor != null ? cursor : 0L, Limit.of(limit + 1));
+    String nextCursor = null;
+    if (secrets.size() > limit) {
+      secrets = secrets.subList(0, limit);
+      nextCursor = secrets.get(limit - 1).getId().toString();
+    }
+
+    return new SecretDetailsPage(
+        mapToDetailsResponses(resolveLeaseScope(principal), secrets), nextCursor);
+  }
+
+  /**
+   * Walks all secrets of the principal's tenant in keyset order and hands them to {@code sink} one
+   * chunk at a time. Each chunk is loaded outside of a shared persistence context, so memory use
+   * does not grow with the size of the tenant.
+   */
+  public void streamSecretsForPrincipal(
+      AgentPassVaultAuthentication principal, Consumer<List<SecretDetailsResponse>> sink) {
+    LeaseScope scope = resolveLeaseScope(principal);
+    Long cursor = 0L;
+    while (true) {
+      List<Secret> chunk =
+          secretRepository.findPageByTenantId(
+              principal.getTenantId(), cursor, Limit.of(STREAM_CHUNK_SIZE));
+      if (chunk.isEmpty()) {
+        return;
+      }
+      sink.accept(mapToDetailsResponses(scope, chunk));
+      if (chunk.size() < STREAM_CHUNK_SIZE) {
+        return;
       }
+      cursor = chunk.get(chunk.size() - 1).getId();
+    }
+  }
+
+  private LeaseScope resolveLeaseScope(AgentPassVaultAuthentication principal) {
+    if (principal.getRole() == Role.ADMIN) {
+      return new LeaseScope(true, null, null);
     }
 
+    User agent =
+        userRepository
+            .findByIdAndTenant_Id((Long) principal.getPrincipal(), principal.getTenantId())
+            .orElseThrow(() -> new AccessDeniedException("Agent not found"));
+    return new LeaseScope(false, agent.getId(), agent.getPublicKeyFingerprint());
+  }
+
+  private List<SecretDetailsResponse> mapToDetailsResponses(
+      LeaseScope scope, List<Secret> secrets) {
+    if (secrets.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    List<Long> secretIds = secrets.stream().map(Secret::getId).collect(Collectors.toList());
     Map<Long, List<Lease>> leasesBySecretId =
-        leases.stream().collect(Collectors.groupingBy(l -> l.getSecret().getId()));
+        findActiveLeases(scope, secretIds).stream()
+            .collect(Collectors.groupingBy(l -> l.getSecret().getId()));
 
     return secrets.stream()
         .map(
@@ -314,21 +488,45 @@ public class SecretService {
         .collect(Collectors.toList());
   }
 
-  private void validateMetadataSize(Map<String, Object> metadata) {
+  private List<Lease> findActiveLeases(LeaseScope scope, List<Long> secretIds) {
+    if (scope.allAgents()) {
+      return leaseRepository.findAllBySecretIdInAndExpiresAtAfter(secretIds, Instant.now());
+    }
+
+    // If no public key is registered, no leases are valid
+    if (scope.publicKeyFingerprint() == null) {
+      return Collections.emptyList();
+    }
+
+    // Filter out leases that do not match the agent's current public key
+    return leaseRepository
+        .findAllByAgentIdAndSecretIdInAndExpiresAtAfter(scope.agentId(), secretIds, Instant.now())
+        .stream()
+        .filter(l -> scope.publicKeyFingerprint().equals(l.getPublicKeyFingerprint()))
+        .collect(Collectors.toList());
+  }
+
+  void validateMetadataSize(Map<String, Object> metadata) {
     if (metadata == null || metadata.isEmpty()) {
       return;
     }
+    // Stream into a byte counter instead of building the JSON string; bails out once past 8 KB
     try {
-      String json = objectMapper.writeValueAsString(metadata);
-      if (json.getBytes(StandardCharsets.UTF_8).length > MAX_METADATA_SIZE_BYTES) {
-        throw new IllegalArgumentException("Metadata size exceeds limit of 8 KB");
-      }
+      objectMapper.writeValue(new SizeLimitedOutputStream(MAX_METADATA_SIZE_BYTES), metadata);
+    } catch (SizeLimitExceededException e) {
+      throw new IllegalArgumentException("Metadata size exceeds limit of 8 KB");
     } catch (JacksonException e) {
+      // Map serializers wrap exceptions thrown by the target stream
+      for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+        if (cause instanceof SizeLimitExceededException) {
+          throw new IllegalArgumentException("Metadata size exceeds limit of 8 KB");
+        }
+      }
       throw new IllegalArgumentException("Invalid metadata format", e);
     }
   }
 
-  private void validateSchema(Map<String, Object> schema) {
+  void validateSchema(Map<String, Object> schema) {
     if (schema == null) {
       throw new IllegalArgumentException("Schema is required");
     }
@@ -336,12 +534,37 @@ public class SecretService {
       throw new IllegalArgumentException("Schema cannot be empty");
     }
     try {
-      objectMapper.writeValueAsString(schema);
+      objectMapper.writeValue(OutputStream.nullOutputStream(), schema);
     } catch (JacksonException e) {
       throw new IllegalArgumentException("Invalid schema format", e);
     }
   }
 
+  /**
+   * Whether {@code secret_metadata_kv} can answer the JSON_CONTAINS predicate on its own. It only
+   * holds top-level scalars and arrays of scalars, so nested objects, nulls and empty arrays still
+   * go through JSON_CONTAINS.
+   */
+  private static boolean isIndexableMetadata(Map<String, Object> metadata) {
+    for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+      if (entry.getKey().length() > MAX_INDEXED_METADATA_KEY_LENGTH) {
+        return false;
+      }
+      if (entry.getValue() instanceof List<?> values) {
+        if (values.isEmpty() || !values.stream().allMatch(SecretService::isMetadataScalar)) {
+          return false;
+        }
+      } else if (!isMetadataScalar(entry.getValue())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isMetadataScalar(Object value) {
+    return value instanceof String || value instanceof Number || value instanceof Boolean;
+  }
+
   private String serializeMetadata(Map<String, Object> metadata) {
     try {
       return objectMapper.writeValueAsString(metadata);
@@ -361,6 +584,17 @@ public class SecretService {
         secret.getUpdatedAt());
   }
 
+  private SecretResponse mapToResponse(LeasedSecretView view) {
+    return new SecretResponse(
+        view.secretId().toString(),
+        view.name(),
+        view.encryptedData(),
+        view.metadata(),
+        view.schema(),
+        view.createdAt(),
+        view.updatedAt());
+  }
+
   private SecretMetadataResponse mapToMetadataResponse(Secret secret) {
     return new SecretMetadataResponse(
         secret.getId().toString(),
@@ -407,4 +641,45 @@ public class SecretService {
         lease.getCreatedAt(),
         lease.getUpdatedAt());
   }
+
+  private record LeaseKey(Long agentId, String publicKeyFingerprint) {}
+
+  /** Which leases the principal may see: every lease (admins) or one agent's current key. */
+  private record LeaseScope(boolean allAgents, Long agentId, String publicKeyFingerprint) {}
+
+  /** Counts written bytes without keeping them, failing as soon as the limit is passed. */
+  private static final class SizeLimitedOutputStream extends OutputStream {
+
+    private final long limit;
+    private long count;
+
+    SizeLimitedOutputStream(long limit) {
+      this.limit = limit;
+    }
+
+    @Override
+    public void write(int b) {
+      add(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      add(len);
+    }
+
+    private void add(int len) {
+      count += len;
+      if (count > limit) {
+        throw new SizeLimitExceededException();
+      }
+    }
+  }
+
+  private static final class SizeLimitExceededException extends RuntimeException {
+
+    SizeLimitExceededException() {
+      // Control flow only; a stack trace would cost more than the serialization we skipped
+      super(null, null, false, false);
+    }
+  }
 }
@@ -6,8 +6,12 @@
  */
 package com.agentpassvault.service;
 
+import com.agentpassvault.cache.AgentTokenCache;
+import com.agentpassvault.cache.SecretCache;
 import com.agentpassvault.model.Tenant;
 import com.agentpassvault.repository.*;
+import com.agentpassvault.security.IdempotencyStore;
+import com.agentpassvault.security.TokenRevocationList;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,6 +26,11 @@ public class TenantService {
   private final RequestRepository requestRepository;
   private final LeaseRepository leaseRepository;
   private final IdempotencyRecordRepository idempotencyRecordRepository;
+  private final IdempotencyStore idempotencyStore;
+  private final AgentTokenCache agentTokenCache;
+  private final SecretCache secretCache;
+  private final RefreshTokenRegistry refreshTokenRegistry;
+  private final TokenRevocationList tokenRevocationList;
 
   @Transactional
   public Tenant createTenant(String name) {
@@ -39,9 +48,16 @@ public class TenantService {
     secretRepository.deleteAllByTenantId(tenantId);
     userRepository.deleteAllByTenantId(tenantId);
 
-    // Delete idempotency records (id starts with tenantId + ":")
+    // Delete idempotency records (id starts with tenantId + ":"). Queued writes go first, so the
+    // next flush cannot re-insert rows for the deleted tenant.
+    idempotencyStore.evictTenant(tenantId);
     idempotencyRecordRepository.deleteByIdStartingWith(tenantId + ":");
 
     tenantRepository.deleteById(tenantId);
+
+    agentTokenCache.evictTenant(tenantId);
+    secretCache.evictTenant(tenantId);
+    refreshTokenRegistry.revokeTenant(tenantId);
+    tokenRevocationList.revokeTenant(tenantId);
   }
 }
@@ -7,12 +7,15 @@
 package com.agentpassvault.service;
 
 import com.agentpassvault.config.JwtConfig;
+import com.agentpassvault.model.Role;
 import com.agentpassvault.model.User;
+import com.agentpassvault.security.TokenIds;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.UUID;
 import javax.crypto.SecretKey;
 import org.springframework.stereotype.Service;
 
@@ -30,11 +33,16 @@ public class TokenService {
   }
 
   public String generateToken(User user) {
+    return generateToken(user.getId(), user.getTenant().getId(), user.getRole());
+  }
+
+  public String generateToken(Long userId, Long tenantId, Role role) {
     Instant now = Instant.now();
     return Jwts.builder()
-        .subject(user.getId().toString())
-        .claim("tenant_id", user.getTenant().getId().toString())
-        .claim("role", user.getRole().name())
+        .id(TokenIds.newId())
+        .subject(userId.toString())
+        .claim("tenant_id", tenantId.toString())
+        .claim("role", role.name())
         .claim("type", "access")
         .issuedAt(Date.from(now))
         .expiration(Date.from(now.plus(expirationMinutes, ChronoUnit.MINUTES)))
@@ -42,10 +50,24 @@ public class TokenService {
         .compact();
   }
 
+  /** Starts a new refresh token family for a fresh login. */
   public String generateRefreshToken(User user) {
+    return generateRefreshToken(
+        user.getId(), user.getTenant().getId(), user.getRole(), UUID.randomUUID().toString());
+  }
+
+  /**
+   * Refresh tokens carry everything needed to mint the next pair, so refreshing does not load the
+   * user. Every token gets its own id; tokens rotated from the same login share {@code familyId}.
+   */
+  public String generateRefreshToken(Long userId, Long tenantId, Role role, String familyId) {
     Instant now = Instant.now();
     return Jwts.builder()
-        .subject(user.getId().toString())
+        .id(TokenIds.newId())
+        .subject(userId.toString())
+        .claim("tenant_id", tenantId.toString())
+        .claim("role", role.name())
+        .claim("family_id", familyId)
         .claim("type", "refresh")
         .issuedAt(Date.from(now))
         .expiration(Date.from(now.plus(refreshExpirationMinutes, ChronoUnit.MINUTES)))
@@ -53,16 +75,29 @@ public class TokenService {
         .compact();
   }
 
-  public Long getUserIdFromToken(String token, String expectedType) {
+  /**
+   * Verifies a refresh token and returns its claims. Tokens issued before families existed only
+   * carry the user id; their tenant, role, family and token id are null.
+   */
+  public RefreshTokenClaims parseRefreshToken(String token) {
     Claims claims =
         Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(token).getPayload();
 
     String type = claims.get("type", String.class);
-    if (!expectedType.equals(type)) {
+    if (!"refresh".equals(type)) {
       throw new IllegalArgumentException("Invalid token type");
     }
 
-    return Long.parseLong(claims.getSubject());
+    String tenantId = claims.get("tenant_id", String.class);
+    String role = claims.get("role", String.class);
+    return new RefreshTokenClaims(
+        Long.parseLong(claims.getSubject()),
+        tenantId != null ? Long.valueOf(tenantId) : null,
+        role != null ? Role.fromString(role) : null,
+        claims.get("family_id", String.class),
+        claims.getId(),
+        TokenIds.issuedAt(claims.getId(), claims.getIssuedAt().toInstant()),
+        claims.getExpiration().toInstant());
   }
 
   public long getExpirationMinutes() {
@@ -72,4 +107,13 @@ public class TokenService {
   public long getRefreshExpirationMinutes() {
     return refreshExpirationMinutes;
   }
+
+  public record RefreshTokenClaims(
+      Long userId,
+      Long tenantId,
+      Role role,
+      String familyId,
+      String tokenId,
+      Instant issuedAt,
+      Instant expiresAt) {}
 }
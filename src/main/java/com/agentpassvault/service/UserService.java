@@ -28,6 +28,7 @@ public class UserService {
   private final TenantRepository tenantRepository;
   private final PasswordEncoder passwordEncoder;
   private final TwoFactorAuthService twoFactorAuthService;
+  private final RefreshTokenRegistry refreshTokenRegistry;
 
   @Transactional
   public User createAdminUser(
@@ -82,6 +83,7 @@ public class UserService {
     user.setPasswordHash(passwordEncoder.encode(newPassword));
     user.setPasswordLastUpdatedAt(Instant.now());
     userRepository.save(user);
+    refreshTokenRegistry.revokeUser(user.getTenant().getId(), user.getId());
   }
 
   @Transactional
@@ -129,6 +131,7 @@ public class UserService {
     user.setResetPasswordExpiresAt(null);
     user.setResetPasswordTokenCreatedAt(null);
     userRepository.save(user);
+    refreshTokenRegistry.revokeUser(user.getTenant().getId(), user.getId());
   }
 
   @Transactional(readOnly = true)
@@ -0,0 +1 @@
+CREATE INDEX idx_users_tenant_app_token_hash ON users (tenant_id, app_token_hash);
@@ -0,0 +1,10 @@
+ALTER TABLE users ADD COLUMN public_key_fp CHAR(64);
+ALTER TABLE leases ADD COLUMN public_key_fp CHAR(64);
+
+-- Lowercase hex SHA-256 of the UTF-8 encoded key, identical to PublicKeyFingerprint.of
+UPDATE users SET public_key_fp = SHA2(public_key, 256) WHERE public_key IS NOT NULL;
+UPDATE leases SET public_key_fp = SHA2(public_key, 256);
+
+ALTER TABLE leases MODIFY COLUMN public_key_fp CHAR(64) NOT NULL;
+
+CREATE INDEX idx_leases_secret_agent_public_key_fp ON leases (secret_id, agent_id, public_key_fp);
@@ -0,0 +1,9 @@
+-- Stopwords are bound to a FULLTEXT index when it is created. Secret names are short identifiers,
+-- so terms like "on" or "db" must stay searchable.
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+-- With the default ngram_token_size of 2, any search term of two or more characters is a phrase
+-- of bigrams, which gives substring matching without scanning the table.
+ALTER TABLE secrets ADD FULLTEXT INDEX ft_secrets_name (name) WITH PARSER ngram;
+
+SET SESSION innodb_ft_enable_stopword = ON;
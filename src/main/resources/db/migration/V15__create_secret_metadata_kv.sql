@@ -0,0 +1,27 @@
+-- One row per top-level metadata key and scalar value (array values contribute one row per
+-- scalar element). value_hash is SHA2 of the value's JSON text, so "1" and 1 stay distinct the
+-- same way JSON_CONTAINS keeps them apart.
+CREATE TABLE secret_metadata_kv (
+    tenant_id BIGINT NOT NULL,
+    meta_key VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL,
+    value_hash CHAR(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL,
+    secret_id BIGINT NOT NULL,
+    PRIMARY KEY (tenant_id, meta_key, value_hash, secret_id),
+    KEY idx_secret_metadata_kv_secret (secret_id),
+    CONSTRAINT FK_secret_metadata_kv_secret
+        FOREIGN KEY (secret_id) REFERENCES secrets (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- Backfill existing secrets; must stay in sync with SecretRepository.indexMetadata
+INSERT INTO secret_metadata_kv (tenant_id, meta_key, value_hash, secret_id)
+SELECT DISTINCT s.tenant_id, k.meta_key, SHA2(CAST(v.val AS CHAR), 256), s.id
+FROM secrets s
+JOIN JSON_TABLE(JSON_KEYS(s.metadata), '$[*]' COLUMNS (meta_key VARCHAR(1024) PATH '$')) k
+JOIN JSON_TABLE(
+    IF(JSON_TYPE(JSON_EXTRACT(s.metadata, CONCAT('$.', JSON_QUOTE(k.meta_key)))) = 'ARRAY',
+       JSON_EXTRACT(s.metadata, CONCAT('$.', JSON_QUOTE(k.meta_key))),
+       JSON_ARRAY(JSON_EXTRACT(s.metadata, CONCAT('$.', JSON_QUOTE(k.meta_key))))),
+    '$[*]' COLUMNS (val JSON PATH '$')) v
+WHERE CHAR_LENGTH(k.meta_key) <= 255
+  AND v.val IS NOT NULL
+  AND JSON_TYPE(v.val) NOT IN ('OBJECT', 'ARRAY', 'NULL');
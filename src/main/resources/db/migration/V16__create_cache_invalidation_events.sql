@@ -0,0 +1,12 @@
+-- Outbox of cache invalidations, written in the same transaction as the change and polled by
+-- every node. created_at comes from the database clock so all nodes agree on the replay window.
+CREATE TABLE cache_invalidation_events (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    origin_node CHAR(36) NOT NULL,
+    cache_name VARCHAR(64) NOT NULL,
+    tenant_id BIGINT NOT NULL,
+    cache_key VARCHAR(255),
+    PRIMARY KEY (id),
+    KEY idx_cache_invalidation_events_created_at (created_at)
+) ENGINE=InnoDB;
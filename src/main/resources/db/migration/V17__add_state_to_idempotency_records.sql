@@ -0,0 +1,3 @@
+-- PENDING rows reserve a key while the first request is still running, so a duplicate on another
+-- node backs off instead of repeating the work.
+ALTER TABLE idempotency_records ADD COLUMN state VARCHAR(16) NOT NULL DEFAULT 'COMPLETED' AFTER id;
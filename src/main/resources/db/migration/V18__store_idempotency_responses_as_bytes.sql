@@ -0,0 +1,13 @@
+-- Response bodies are kept as the raw bytes that were sent, deflated above a size threshold, so
+-- replays copy them to the socket without decoding. Existing rows keep their bytes uncompressed.
+ALTER TABLE idempotency_records
+    MODIFY COLUMN response_body LONGBLOB,
+    ADD COLUMN body_length INT NOT NULL DEFAULT 0 AFTER response_body,
+    ADD COLUMN compressed BOOLEAN NOT NULL DEFAULT FALSE AFTER body_length,
+    ADD COLUMN content_type VARCHAR(255) AFTER compressed,
+    ADD COLUMN response_headers JSON AFTER content_type;
+
+UPDATE idempotency_records
+SET body_length = COALESCE(LENGTH(response_body), 0),
+    content_type = 'application/json'
+WHERE state = 'COMPLETED';
@@ -0,0 +1,2 @@
+-- Lets the expiry job find the oldest rows in index order and delete them in small chunks.
+CREATE INDEX idx_idempotency_records_created_at ON idempotency_records (created_at);
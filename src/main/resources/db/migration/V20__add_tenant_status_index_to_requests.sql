@@ -0,0 +1,2 @@
+-- Serves status-filtered request listings in keyset order, e.g. the admin inbox of pending items.
+CREATE INDEX idx_requests_tenant_status_id ON requests (tenant_id, status, id);
@@ -0,0 +1,15 @@
+-- Revoked refresh tokens, mirrored in memory by every node so a refresh never has to load the
+-- user. A row revokes one token family, or every token of a user (or of a whole tenant) issued
+-- before issued_before. It is kept until every token it can match has expired.
+CREATE TABLE refresh_token_revocations (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    tenant_id BIGINT NOT NULL,
+    user_id BIGINT,
+    family_id CHAR(36),
+    issued_before DATETIME(6),
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_refresh_token_revocations_created_at (created_at),
+    KEY idx_refresh_token_revocations_expires_at (expires_at)
+) ENGINE=InnoDB;
@@ -0,0 +1,15 @@
+-- Revoked access tokens, mirrored in memory by every node and checked on each request. A row
+-- revokes one token by its jti, or every token of a user (or of a whole tenant) issued before
+-- issued_before. It is kept until every token it can match has expired.
+CREATE TABLE revoked_tokens (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    tenant_id BIGINT NOT NULL,
+    user_id BIGINT,
+    token_id CHAR(13),
+    issued_before DATETIME(6),
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_revoked_tokens_created_at (created_at),
+    KEY idx_revoked_tokens_expires_at (expires_at)
+) ENGINE=InnoDB;
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.agentpassvault.AgentPassVaultApplication;
+import com.agentpassvault.BaseIntegrationTest;
+import com.agentpassvault.dto.SecretResponse;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/** Runs a second application context against the same database to play the other node. */
+class CacheInvalidationBusTest extends BaseIntegrationTest {
+
+  @Autowired private SecretCache secretCache;
+
+  @Autowired private OutboxCacheInvalidationBus bus;
+
+  private ConfigurableApplicationContext otherNode;
+
+  @BeforeEach
+  void startOtherNode() {
+    otherNode =
+        new SpringApplicationBuilder(AgentPassVaultApplication.class)
+            .profiles("test")
+            .properties(
+                "server.port=0",
+                "spring.flyway.enabled=false",
+                // Only the explicit poll() calls below may apply events on the other node
+                "agentpassvault.cache.invalidation.poll-interval-ms=3600000")
+            .run();
+  }
+
+  @AfterEach
+  void stopOtherNode() {
+    otherNode.close();
+  }
+
+  @Test
+  void evictOnOtherNode_DropsLocalEntryAfterPoll() {
+    Long tenantId = createTenant();
+    AtomicInteger loads = new AtomicInteger();
+    Supplier<Optional<SecretResponse>> loader =
+        () -> {
+          loads.incrementAndGet();
+          return Optional.of(
+              new SecretResponse(
+                  "42", "name", "ciphertext", Map.of(), Map.of(), Instant.now(), Instant.now()));
+        };
+
+    secretCache.get(tenantId, 42L, loader);
+    secretCache.get(tenantId, 42L, loader);
+    assertEquals(1, loads.get());
+
+    otherNode.getBean(SecretCache.class).evict(tenantId, 42L);
+    bus.poll();
+
+    secretCache.get(tenantId, 42L, loader);
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void evictTenantOnThisNode_ReachesOtherNode() {
+    Long tenantId = createTenant();
+    SecretCache otherCache = otherNode.getBean(SecretCache.class);
+    AtomicInteger loads = new AtomicInteger();
+    Supplier<Optional<SecretResponse>> loader =
+        () -> {
+          loads.incrementAndGet();
+          return Optional.of(
+              new SecretResponse(
+                  "7", "name", "ciphertext", Map.of(), Map.of(), Instant.now(), Instant.now()));
+        };
+
+    otherCache.get(tenantId, 7L, loader);
+    secretCache.evictTenant(tenantId);
+
+    // Nothing changes on the other node until it polls
+    otherCache.get(tenantId, 7L, loader);
+    assertEquals(1, loads.get());
+
+    otherNode.getBean(OutboxCacheInvalidationBus.class).poll();
+    otherCache.get(tenantId, 7L, loader);
+    assertEquals(2, loads.get());
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.agentpassvault.BaseIntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(
+    properties = {
+      "spring.threads.virtual.enabled=true",
+      "spring.datasource.hikari.maximum-pool-size=2"
+    })
+class VirtualThreadModeTest extends BaseIntegrationTest {
+
+  @Autowired private DataSource dataSource;
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Test
+  void manyVirtualThreads_QueueForPermitsInsteadOfFailing() throws Exception {
+    assertInstanceOf(ConnectionLimitingDataSource.class, dataSource);
+    Long tenantId = createTenant();
+
+    int threads = 50;
+    List<Future<Boolean>> results = new ArrayList<>(threads);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(() -> tenantRepository.existsById(tenantId)));
+      }
+    }
+    for (Future<Boolean> result : results) {
+      assertTrue(result.get());
+    }
+
+    long permitsTaken = meterRegistry.get("agentpassvault.datasource.permit.wait").timer().count();
+    assertTrue(permitsTaken >= threads, "every connection should pass through the permit gate");
+    assertEquals(0, meterRegistry.get("agentpassvault.datasource.permit.waiting").gauge().value());
+  }
+}
@@ -102,13 +102,68 @@ class AgentControllerTest extends BaseIntegrationTest {
     String agentId = objectMapper.readTree(createResponse).get("agentId").asText();
     String oldToken = objectMapper.readTree(createResponse).get("appToken").asText();
 
+    // Log in once so the old token is cached
+    getAgentAuthToken(tenantId.toString(), oldToken);
+
     // Rotate
+    String rotateResponse =
+        mockMvc
+            .perform(
+                post("/api/v1/agents/" + agentId + "/rotate")
+                    .header("Authorization", "Bearer " + token))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.appToken").value(not(oldToken)))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String newToken = objectMapper.readTree(rotateResponse).get("appToken").asText();
+
+    // The old token no longer logs in, the new one does
     mockMvc
         .perform(
-            post("/api/v1/agents/" + agentId + "/rotate")
-                .header("Authorization", "Bearer " + token))
-        .andExpect(status().isOk())
-        .andExpect(jsonPath("$.appToken").value(not(oldToken)));
+            post("/api/v1/auth/login/agent")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new AgentLoginRequest(tenantId.toString(), oldToken))))
+        .andExpect(status().isUnauthorized());
+    getAgentAuthToken(tenantId.toString(), newToken);
+  }
+
+  @Test
+  void deleteAgent_InvalidatesAppToken() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String token = getAuthToken("admin@example.com", "password");
+
+    String createResponse =
+        mockMvc
+            .perform(
+                post("/api/v1/agents")
+                    .header("Authorization", "Bearer " + token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new CreateAgentRequest("Agent 1"))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String agentId = objectMapper.readTree(createResponse).get("agentId").asText();
+    String appToken = objectMapper.readTree(createResponse).get("appToken").asText();
+
+    getAgentAuthToken(tenantId.toString(), appToken);
+
+    mockMvc
+        .perform(delete("/api/v1/agents/" + agentId).header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk());
+
+    mockMvc
+        .perform(
+            post("/api/v1/auth/login/agent")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new AgentLoginRequest(tenantId.toString(), appToken))))
+        .andExpect(status().isUnauthorized());
   }
 
   @Test
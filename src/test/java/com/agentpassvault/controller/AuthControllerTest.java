@@ -11,11 +11,17 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.agentpassvault.BaseIntegrationTest;
+import com.agentpassvault.config.JwtConfig;
 import com.agentpassvault.dto.*;
+import com.agentpassvault.service.AgentService;
 import com.agentpassvault.service.UserService;
+import io.jsonwebtoken.Jwts;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Base64;
+import java.util.Date;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
@@ -23,6 +29,8 @@ import org.springframework.http.MediaType;
 class AuthControllerTest extends BaseIntegrationTest {
 
   @Autowired private UserService userService;
+  @Autowired private AgentService agentService;
+  @Autowired private JwtConfig jwtConfig;
 
   @Test
   void changePassword_WithValidCredentials_Success() throws Exception {
@@ -277,6 +285,124 @@ class AuthControllerTest extends BaseIntegrationTest {
         .andExpect(jsonPath("$.refreshTokenExpiresIn").exists());
   }
 
+  @Test
+  void refreshToken_ReusedAfterRotation_RevokesFamily() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "reuse_user@example.com", "password");
+    String loginResponse =
+        mockMvc
+            .perform(
+                post("/api/v1/auth/login/user")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new UserLoginRequest("reuse_user@example.com", "password"))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String first = objectMapper.readTree(loginResponse).get("refreshToken").asText();
+
+    String second = objectMapper.readTree(refresh(first, 200)).get("refreshToken").asText();
+
+    // The rotated-out token is refused, and so is every later token of its family
+    refresh(first, 401);
+    refresh(second, 401);
+  }
+
+  @Test
+  void refreshToken_AfterAgentTokenRotation_Returns401() throws Exception {
+    Long tenantId = createTenant();
+    AgentTokenResponse agent = agentService.createAgent(tenantId, "refresh-agent");
+    String loginResponse =
+        mockMvc
+            .perform(
+                post("/api/v1/auth/login/agent")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new AgentLoginRequest(tenantId.toString(), agent.appToken()))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String refreshToken = objectMapper.readTree(loginResponse).get("refreshToken").asText();
+
+    agentService.rotateToken(tenantId, Long.valueOf(agent.agentId()));
+
+    refresh(refreshToken, 401);
+  }
+
+  @Test
+  void refreshToken_LegacyToken_SingleUseAndRevocable() throws Exception {
+    Long tenantId = createTenant();
+    AgentTokenResponse agent = agentService.createAgent(tenantId, "legacy-agent");
+    Long agentId = Long.valueOf(agent.agentId());
+
+    // Legacy tokens carry neither a family nor a token id
+    String legacy = legacyRefreshToken(agentId, Instant.now().minus(Duration.ofMinutes(2)));
+    refresh(legacy, 200);
+    refresh(legacy, 401);
+
+    String revoked = legacyRefreshToken(agentId, Instant.now().minus(Duration.ofMinutes(1)));
+    agentService.rotateToken(tenantId, agentId);
+    refresh(revoked, 401);
+  }
+
+  @Test
+  void logout_RevokesAccessTokenAndRefreshFamily() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "logout_user@example.com", "password");
+    String loginResponse =
+        mockMvc
+            .perform(
+                post("/api/v1/auth/login/user")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new UserLoginRequest("logout_user@example.com", "password"))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String accessToken = objectMapper.readTree(loginResponse).get("accessToken").asText();
+    String refreshToken = objectMapper.readTree(loginResponse).get("refreshToken").asText();
+
+    mockMvc
+        .perform(get("/api/v1/secrets").header("Authorization", "Bearer " + accessToken))
+        .andExpect(status().isOk());
+
+    mockMvc
+        .perform(
+            post("/api/v1/auth/logout")
+                .header("Authorization", "Bearer " + accessToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LogoutRequest(refreshToken))))
+        .andExpect(status().isOk());
+
+    mockMvc
+        .perform(get("/api/v1/secrets").header("Authorization", "Bearer " + accessToken))
+        .andExpect(status().isUnauthorized());
+    refresh(refreshToken, 401);
+  }
+
+  @Test
+  void agentTokenRotation_RevokesOldAccessTokensOnly() throws Exception {
+    Long tenantId = createTenant();
+    AgentTokenResponse agent = agentService.createAgent(tenantId, "rotated-agent");
+    String oldAccessToken = agentAccessToken(tenantId, agent.appToken());
+
+    AgentTokenResponse rotated = agentService.rotateToken(tenantId, Long.valueOf(agent.agentId()));
+    String newAccessToken = agentAccessToken(tenantId, rotated.appToken());
+
+    mockMvc
+        .perform(get("/api/v1/secrets").header("Authorization", "Bearer " + oldAccessToken))
+        .andExpect(status().isUnauthorized());
+    mockMvc
+        .perform(get("/api/v1/secrets").header("Authorization", "Bearer " + newAccessToken))
+        .andExpect(status().isOk());
+  }
+
   @Test
   void refreshToken_WithInvalidToken_Returns401() throws Exception {
     RefreshTokenRequest refreshRequest = new RefreshTokenRequest("invalid_token");
@@ -288,4 +414,42 @@ class AuthControllerTest extends BaseIntegrationTest {
                 .content(objectMapper.writeValueAsString(refreshRequest)))
         .andExpect(status().isUnauthorized());
   }
+
+  private String agentAccessToken(Long tenantId, String appToken) throws Exception {
+    String loginResponse =
+        mockMvc
+            .perform(
+                post("/api/v1/auth/login/agent")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new AgentLoginRequest(tenantId.toString(), appToken))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readTree(loginResponse).get("accessToken").asText();
+  }
+
+  private String legacyRefreshToken(Long userId, Instant issuedAt) {
+    return Jwts.builder()
+        .subject(userId.toString())
+        .claim("type", "refresh")
+        .issuedAt(Date.from(issuedAt))
+        .expiration(Date.from(issuedAt.plus(Duration.ofHours(1))))
+        .signWith(jwtConfig.getSecretKey())
+        .compact();
+  }
+
+  private String refresh(String refreshToken, int expectedStatus) throws Exception {
+    return mockMvc
+        .perform(
+            post("/api/v1/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequest(refreshToken))))
+        .andExpect(status().is(expectedStatus))
+        .andReturn()
+        .getResponse()
+        .getContentAsString();
+  }
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.agentpassvault.BaseIntegrationTest;
+import com.agentpassvault.dto.*;
+import com.agentpassvault.service.AgentService;
+import com.agentpassvault.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+/**
+ * Guards against N+1 queries: each endpoint must issue the same number of statements no matter
+ * how many rows it returns or writes. Background pollers are slowed down so they do not show up in
+ * the global Hibernate statistics while a request is measured.
+ */
+@TestPropertySource(
+    properties = {
+      "agentpassvault.cache.invalidation.poll-interval-ms=3600000",
+      "agentpassvault.idempotency.cleanup.interval-ms=3600000"
+    })
+class QueryCountTest extends BaseIntegrationTest {
+
+  @Autowired private UserService userService;
+  @Autowired private AgentService agentService;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+  private Long tenantId;
+  private String token;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    token = getAuthToken("admin@example.com", "password");
+  }
+
+  @Test
+  void listSecrets_StatementCountIndependentOfSecretsAndLeases() throws Exception {
+    grantToNewAgents(createSecret("Secret 0"), 1);
+    long few = statementsFor(get("/api/v1/secrets").header("Authorization", "Bearer " + token));
+
+    for (int i = 1; i <= 4; i++) {
+      grantToNewAgents(createSecret("Secret " + i), 2);
+    }
+    long many = statementsFor(get("/api/v1/secrets").header("Authorization", "Bearer " + token));
+
+    assertEquals(few, many);
+  }
+
+  @Test
+  void listLeases_StatementCountIndependentOfLeases() throws Exception {
+    String secretId = createSecret("Secret");
+    grantToNewAgents(secretId, 1);
+    long few =
+        statementsFor(
+            get("/api/v1/secrets/" + secretId + "/leases")
+                .header("Authorization", "Bearer " + token));
+
+    grantToNewAgents(secretId, 5);
+    long many =
+        statementsFor(
+            get("/api/v1/secrets/" + secretId + "/leases")
+                .header("Authorization", "Bearer " + token));
+
+    assertEquals(few, many);
+  }
+
+  @Test
+  void listRequests_StatementCountIndependentOfRequests() throws Exception {
+    createRequest("Request 0");
+    long few = statementsFor(get("/api/v1/requests").header("Authorization", "Bearer " + token));
+
+    for (int i = 1; i <= 4; i++) {
+      createRequest("Request " + i);
+    }
+    long many = statementsFor(get("/api/v1/requests").header("Authorization", "Bearer " + token));
+
+    assertEquals(few, many);
+  }
+
+  @Test
+  void batchCreateAndRevokeLeases_StatementCountIndependentOfAgents() throws Exception {
+    String firstSecret = createSecret("Secret 1");
+    String secondSecret = createSecret("Secret 2");
+
+    long fewGranted = statementsFor(batchCreate(firstSecret, newAgents(2)));
+    List<String> manyAgents = newAgents(8);
+    long manyGranted = statementsFor(batchCreate(secondSecret, manyAgents));
+    assertEquals(fewGranted, manyGranted);
+
+    long fewRevoked = statementsFor(revoke(secondSecret, manyAgents.subList(0, 1)));
+    long manyRevoked = statementsFor(revoke(secondSecret, manyAgents.subList(1, 8)));
+    assertEquals(fewRevoked, manyRevoked);
+  }
+
+  private long statementsFor(RequestBuilder request) throws Exception {
+    statistics.clear();
+    mockMvc.perform(request).andExpect(status().isOk());
+    return statistics.getPrepareStatementCount();
+  }
+
+  private RequestBuilder batchCreate(String secretId, List<String> agentIds) throws Exception {
+    Instant expiry = Instant.now().plusSeconds(3600);
+    List<CreateLeaseRequest> leases = new ArrayList<>();
+    for (String agentId : agentIds) {
+      leases.add(new CreateLeaseRequest(agentId, "pubkey-" + agentId, "enc", expiry));
+    }
+    return post("/api/v1/secrets/" + secretId + "/leases:batch")
+        .header("Authorization", "Bearer " + token)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(new BatchCreateLeaseRequest(leases)));
+  }
+
+  private RequestBuilder revoke(String secretId, List<String> agentIds) throws Exception {
+    return post("/api/v1/secrets/" + secretId + "/leases:revoke")
+        .header("Authorization", "Bearer " + token)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(new RevokeLeasesRequest(agentIds)));
+  }
+
+  private List<String> newAgents(int count) {
+    List<String> agentIds = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      agentIds.add(agentService.createAgent(tenantId, "agent-" + UUID.randomUUID()).agentId());
+    }
+    return agentIds;
+  }
+
+  private void grantToNewAgents(String secretId, int count) throws Exception {
+    mockMvc.perform(batchCreate(secretId, newAgents(count))).andExpect(status().isOk());
+  }
+
+  private void createRequest(String name) throws Exception {
+    CreateRequestRequest createReq =
+        new CreateRequestRequest(name, "context", Map.of("service", "aws"), List.of("key"));
+    mockMvc
+        .perform(
+            post("/api/v1/requests")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createReq)))
+        .andExpect(status().isOk());
+  }
+
+  private String createSecret(String name) throws Exception {
+    CreateSecretRequest createReq =
+        new CreateSecretRequest(
+            name, "secret_value", null, Map.of("template", "legacy", "version", 1));
+    String createResponse =
+        mockMvc
+            .perform(
+                post("/api/v1/secrets")
+                    .header("Authorization", "Bearer " + token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(createReq)))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readTree(createResponse).get("secretId").asText();
+  }
+
+  private String getAuthToken(String username, String password) throws Exception {
+    String loginResponse =
+        mockMvc
+            .perform(
+                post("/api/v1/auth/login/user")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(new UserLoginRequest(username, password))))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readTree(loginResponse).get("accessToken").asText();
+  }
+}
@@ -6,11 +6,15 @@
  */
 package com.agentpassvault.controller;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.agentpassvault.BaseIntegrationTest;
@@ -23,6 +27,7 @@ import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
 
 class RequestControllerTest extends BaseIntegrationTest {
 
@@ -248,4 +253,146 @@ class RequestControllerTest extends BaseIntegrationTest {
         .andExpect(jsonPath("$.status").value("fulfilled"))
         .andExpect(jsonPath("$.mappedSecretId").value(secretId));
   }
+
+  @Test
+  void waitForRequest_CompletesWhenRejected() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String token = getAuthToken("admin@example.com", "password");
+    String requestId = createRequest(token, "Waited Req");
+
+    MvcResult waiting =
+        mockMvc
+            .perform(
+                get("/api/v1/requests/" + requestId + "/wait")
+                    .param("timeout", "30")
+                    .header("Authorization", "Bearer " + token))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(
+            patch("/api/v1/requests/" + requestId)
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new UpdateRequestRequest(RequestStatus.rejected, null, "Denied"))))
+        .andExpect(status().isOk());
+
+    mockMvc
+        .perform(asyncDispatch(waiting))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value("rejected"))
+        .andExpect(jsonPath("$.rejectionReason").value("Denied"));
+  }
+
+  @Test
+  void streamRequestEvents_SendsCurrentStateThenChange() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String token = getAuthToken("admin@example.com", "password");
+    String requestId = createRequest(token, "Streamed Req");
+
+    MvcResult streaming =
+        mockMvc
+            .perform(
+                get("/api/v1/requests/" + requestId + "/events")
+                    .header("Authorization", "Bearer " + token))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(
+            patch("/api/v1/requests/" + requestId)
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new UpdateRequestRequest(RequestStatus.rejected, null, "Denied"))))
+        .andExpect(status().isOk());
+
+    String events = streaming.getResponse().getContentAsString();
+    assertTrue(events.indexOf("\"status\":\"pending\"") >= 0);
+    assertTrue(
+        events.indexOf("\"status\":\"rejected\"") > events.indexOf("\"status\":\"pending\""));
+  }
+
+  @Test
+  void listRequests_FiltersByStatusAndPages() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String token = getAuthToken("admin@example.com", "password");
+
+    String first = createRequest(token, "First");
+    String second = createRequest(token, "Second");
+    String rejected = createRequest(token, "Rejected");
+    mockMvc
+        .perform(
+            patch("/api/v1/requests/" + rejected)
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new UpdateRequestRequest(RequestStatus.rejected, null, "Denied"))))
+        .andExpect(status().isOk());
+
+    mockMvc
+        .perform(
+            get("/api/v1/requests")
+                .param("status", "pending")
+                .param("limit", "1")
+                .header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].requestId").value(first))
+        .andExpect(header().string(SecretController.NEXT_CURSOR_HEADER, first));
+
+    mockMvc
+        .perform(
+            get("/api/v1/requests")
+                .param("status", "pending")
+                .param("limit", "1")
+                .param("cursor", first)
+                .header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].requestId").value(second))
+        .andExpect(header().doesNotExist(SecretController.NEXT_CURSOR_HEADER));
+
+    mockMvc
+        .perform(
+            get("/api/v1/requests")
+                .param("status", "rejected")
+                .param("type", "CREATE")
+                .header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].requestId").value(rejected))
+        .andExpect(jsonPath("$[0].rejectionReason").value("Denied"));
+
+    mockMvc
+        .perform(
+            get("/api/v1/requests")
+                .param("requesterId", "1")
+                .header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(0));
+  }
+
+  private String createRequest(String token, String name) throws Exception {
+    String reqResponse =
+        mockMvc
+            .perform(
+                post("/api/v1/requests")
+                    .header("Authorization", "Bearer " + token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new CreateRequestRequest(name, "Context", null, null))))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readTree(reqResponse).get("requestId").asText();
+  }
 }
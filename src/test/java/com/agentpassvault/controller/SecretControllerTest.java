@@ -7,6 +7,7 @@
 package com.agentpassvault.controller;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -14,10 +15,12 @@ import com.agentpassvault.BaseIntegrationTest;
 import com.agentpassvault.dto.*;
 import com.agentpassvault.service.AgentService;
 import com.agentpassvault.service.UserService;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
 
 @SuppressWarnings("HidingField")
 class SecretControllerTest extends BaseIntegrationTest {
@@ -258,6 +261,182 @@ class SecretControllerTest extends BaseIntegrationTest {
         .andExpect(jsonPath("$", hasSize(3)));
   }
 
+  @Test
+  void searchSecrets_ByMetadata_FollowsUpdatesAndArrayValues() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String token = getAuthToken("admin@example.com", "password");
+
+    String createResponse =
+        mockMvc
+            .perform(
+                post("/api/v1/secrets")
+                    .header("Authorization", "Bearer " + token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new CreateSecretRequest(
+                                "Tagged",
+                                "v1",
+                                Map.of("env", "prod", "tags", List.of("db", "primary")),
+                                defaultSchema()))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String secretId = objectMapper.readTree(createResponse).get("secretId").asText();
+
+    // A scalar predicate matches an element of an array value
+    mockMvc
+        .perform(
+            post("/api/v1/secrets/search")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new SearchSecretRequest(null, Map.of("env", "prod", "tags", "db")))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].secretId").value(secretId));
+
+    UpdateSecretRequest updateReq =
+        new UpdateSecretRequest(null, null, Map.of("env", "dev"), defaultSchema(), null);
+    mockMvc
+        .perform(
+            patch("/api/v1/secrets/" + secretId)
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateReq)))
+        .andExpect(status().isOk());
+
+    // Old metadata no longer matches, the new one does
+    mockMvc
+        .perform(
+            post("/api/v1/secrets/search")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new SearchSecretRequest(null, Map.of("env", "prod")))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(0)));
+    mockMvc
+        .perform(
+            post("/api/v1/secrets/search")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new SearchSecretRequest(null, Map.of("env", "dev")))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)));
+  }
+
+  @Test
+  void searchSecrets_ByName_UsesSubstringMatchAndLimit() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String token = getAuthToken("admin@example.com", "password");
+
+    createSecret(token, "Prod Database");
+    createSecret(token, "Database");
+    createSecret(token, "Staging Cache");
+
+    // Case-insensitive match in the middle of a word
+    mockMvc
+        .perform(
+            post("/api/v1/secrets/search")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new SearchSecretRequest("ABAS", null))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[*].name", containsInAnyOrder("Prod Database", "Database")));
+
+    // Results are capped by the requested limit
+    mockMvc
+        .perform(
+            post("/api/v1/secrets/search")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new SearchSecretRequest("database", null, 1))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)));
+
+    // Single-character terms are shorter than an ngram and still match
+    mockMvc
+        .perform(
+            post("/api/v1/secrets/search")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new SearchSecretRequest("c", null))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].name").value("Staging Cache"));
+
+    mockMvc
+        .perform(
+            post("/api/v1/secrets/search")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(new SearchSecretRequest("data", null, 0))))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void searchSecrets_MoreMatchesThanLimit_ReturnsNextCursor() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String token = getAuthToken("admin@example.com", "password");
+
+    createSecret(token, "Database 1");
+    createSecret(token, "Database 2");
+    createSecret(token, "Database 3");
+
+    // Without criteria pages walk the tenant by id; a name search pages through the ranking
+    for (String name : java.util.Arrays.asList(null, "database")) {
+      // Without paging fields every match comes back at once
+      mockMvc
+          .perform(
+              post("/api/v1/secrets/search")
+                  .header("Authorization", "Bearer " + token)
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsString(new SearchSecretRequest(name, null))))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$", hasSize(3)))
+          .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+      MvcResult first =
+          mockMvc
+              .perform(
+                  post("/api/v1/secrets/search")
+                      .header("Authorization", "Bearer " + token)
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content(
+                          objectMapper.writeValueAsString(new SearchSecretRequest(name, null, 2))))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$", hasSize(2)))
+              .andExpect(header().exists("X-Next-Cursor"))
+              .andReturn();
+      String cursor = first.getResponse().getHeader("X-Next-Cursor");
+
+      mockMvc
+          .perform(
+              post("/api/v1/secrets/search")
+                  .header("Authorization", "Bearer " + token)
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(
+                      objectMapper.writeValueAsString(
+                          new SearchSecretRequest(name, null, 2, cursor))))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$", hasSize(1)))
+          .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+  }
+
   @Test
   void crossTenantAccess_Denied() throws Exception {
     // Tenant A
@@ -382,6 +561,110 @@ class SecretControllerTest extends BaseIntegrationTest {
         .andExpect(jsonPath("$.encryptedValue").value("agent_encrypted_val"));
   }
 
+  @Test
+  void getSecret_AsAgentWithoutLease_Forbidden() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String adminToken = getAuthToken("admin@example.com", "password");
+
+    String secretId = createSecret(adminToken, "Not Leased");
+
+    AgentTokenResponse agentResp = agentService.createAgent(tenantId, "test-agent");
+    String agentLoginResp =
+        mockMvc
+            .perform(
+                post("/api/v1/auth/login/agent")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new AgentLoginRequest(tenantId.toString(), agentResp.appToken()))))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String agentJwt = objectMapper.readTree(agentLoginResp).get("accessToken").asText();
+
+    // Existing secret, agent without a public key
+    mockMvc
+        .perform(get("/api/v1/secrets/" + secretId).header("Authorization", "Bearer " + agentJwt))
+        .andExpect(status().isForbidden())
+        .andExpect(jsonPath("$.message").value("Agent has no registered public key"));
+
+    // Existing secret without a lease
+    agentService.registerPublicKey(tenantId, Long.valueOf(agentResp.agentId()), "public-key");
+    mockMvc
+        .perform(get("/api/v1/secrets/" + secretId).header("Authorization", "Bearer " + agentJwt))
+        .andExpect(status().isForbidden())
+        .andExpect(
+            jsonPath("$.message")
+                .value("No valid lease found for this secret and current public key"));
+
+    // Unknown secret
+    mockMvc
+        .perform(get("/api/v1/secrets/12345").header("Authorization", "Bearer " + agentJwt))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void registerPublicKey_RotatedKey_RevokesOldLeases() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String adminToken = getAuthToken("admin@example.com", "password");
+
+    String secretId = createSecret(adminToken, "Rotate Me");
+
+    AgentTokenResponse agentResp = agentService.createAgent(tenantId, "test-agent");
+    String agentId = agentResp.agentId();
+    String agentLoginResp =
+        mockMvc
+            .perform(
+                post("/api/v1/auth/login/agent")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new AgentLoginRequest(tenantId.toString(), agentResp.appToken()))))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String agentJwt = objectMapper.readTree(agentLoginResp).get("accessToken").asText();
+
+    String oldPublicKey = "old-public-key";
+    agentService.registerPublicKey(tenantId, Long.valueOf(agentId), oldPublicKey);
+
+    CreateLeaseRequest leaseReq =
+        new CreateLeaseRequest(
+            agentId,
+            oldPublicKey,
+            "agent_encrypted_val",
+            java.time.Instant.now().plusSeconds(3600));
+    mockMvc
+        .perform(
+            post("/api/v1/secrets/" + secretId + "/leases")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(leaseReq)))
+        .andExpect(status().isOk());
+
+    mockMvc
+        .perform(get("/api/v1/secrets/" + secretId).header("Authorization", "Bearer " + agentJwt))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.encryptedValue").value("agent_encrypted_val"));
+
+    // Registering a new key drops every lease encrypted for the old one
+    mockMvc
+        .perform(
+            post("/api/v1/agents/" + agentId + "/register")
+                .header("Authorization", "Bearer " + agentJwt)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(new RegisterAgentRequest("new-public-key"))))
+        .andExpect(status().isOk());
+
+    assertTrue(leaseRepository.findBySecret_Id(Long.valueOf(secretId)).isEmpty());
+    mockMvc
+        .perform(get("/api/v1/secrets/" + secretId).header("Authorization", "Bearer " + agentJwt))
+        .andExpect(status().isForbidden());
+  }
+
   @Test
   void updateSecret_Success() throws Exception {
     Long tenantId = createTenant();
@@ -405,6 +688,45 @@ class SecretControllerTest extends BaseIntegrationTest {
         .andExpect(jsonPath("$.metadata.new").value("meta"));
   }
 
+  @Test
+  void getSecret_AfterUpdateAndDelete_DoesNotServeStaleData() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String token = getAuthToken("admin@example.com", "password");
+
+    String secretId = createSecret(token, "Original Name");
+
+    // Warm the cache
+    mockMvc
+        .perform(get("/api/v1/secrets/" + secretId).header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.name").value("Original Name"));
+
+    UpdateSecretRequest updateReq =
+        new UpdateSecretRequest("Updated Name", "rotated-ciphertext", null, defaultSchema(), null);
+    mockMvc
+        .perform(
+            patch("/api/v1/secrets/" + secretId)
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateReq)))
+        .andExpect(status().isOk());
+
+    mockMvc
+        .perform(get("/api/v1/secrets/" + secretId).header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.name").value("Updated Name"))
+        .andExpect(jsonPath("$.encryptedValue").value("rotated-ciphertext"));
+
+    mockMvc
+        .perform(delete("/api/v1/secrets/" + secretId).header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk());
+
+    mockMvc
+        .perform(get("/api/v1/secrets/" + secretId).header("Authorization", "Bearer " + token))
+        .andExpect(status().isNotFound());
+  }
+
   @Test
   void updateSecret_WithoutSchema_BadRequest() throws Exception {
     Long tenantId = createTenant();
@@ -465,7 +787,8 @@ class SecretControllerTest extends BaseIntegrationTest {
         .perform(
             delete("/api/v1/secrets/" + secretId + "/leases/" + agentId)
                 .header("Authorization", "Bearer " + token))
-        .andExpect(status().isOk());
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.revoked").value(1));
 
     // List Leases should be empty
     mockMvc
@@ -476,6 +799,124 @@ class SecretControllerTest extends BaseIntegrationTest {
         .andExpect(jsonPath("$", hasSize(0)));
   }
 
+  @Test
+  void revokeLease_UnknownOrForeignAgent_BadRequest() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String token = getAuthToken("admin@example.com", "password");
+    String secretId = createSecret(token, "Secret");
+
+    Long otherTenantId = createTenant();
+    String foreignAgent = agentService.createAgent(otherTenantId, "agent-1").agentId();
+
+    for (String agentId : List.of("999999", foreignAgent)) {
+      mockMvc
+          .perform(
+              delete("/api/v1/secrets/" + secretId + "/leases/" + agentId)
+                  .header("Authorization", "Bearer " + token))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.message").value("Agent not found"));
+    }
+  }
+
+  @Test
+  void createLeases_Batch_ReportsPerItemResults() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String token = getAuthToken("admin@example.com", "password");
+
+    String secretId = createSecret(token, "Secret");
+    String agent1 = agentService.createAgent(tenantId, "agent-1").agentId();
+    String agent2 = agentService.createAgent(tenantId, "agent-2").agentId();
+    java.time.Instant expiry = java.time.Instant.now().plusSeconds(3600);
+
+    // agent-1 already holds a lease for its key, which the batch refreshes
+    mockMvc
+        .perform(
+            post("/api/v1/secrets/" + secretId + "/leases")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new CreateLeaseRequest(agent1, "pubkey-1", "old", expiry))))
+        .andExpect(status().isOk());
+
+    BatchCreateLeaseRequest batch =
+        new BatchCreateLeaseRequest(
+            List.of(
+                new CreateLeaseRequest(agent1, "pubkey-1", "enc-1", expiry),
+                new CreateLeaseRequest(agent2, "pubkey-2", "enc-2", expiry),
+                new CreateLeaseRequest("999999", "pubkey-3", "enc-3", expiry)));
+    mockMvc
+        .perform(
+            post("/api/v1/secrets/" + secretId + "/leases:batch")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.results", hasSize(3)))
+        .andExpect(jsonPath("$.results[0].status").value("UPDATED"))
+        .andExpect(jsonPath("$.results[1].status").value("CREATED"))
+        .andExpect(jsonPath("$.results[1].leaseId").isNotEmpty())
+        .andExpect(jsonPath("$.results[2].status").value("FAILED"))
+        .andExpect(jsonPath("$.results[2].error").value("Agent not found"));
+
+    mockMvc
+        .perform(
+            get("/api/v1/secrets/" + secretId + "/leases")
+                .header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[*].encryptedData", containsInAnyOrder("enc-1", "enc-2")));
+  }
+
+  @Test
+  void revokeLeases_ManyAgents_DeletesOnlyTheirLeases() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String token = getAuthToken("admin@example.com", "password");
+
+    String secretId = createSecret(token, "Secret");
+    String agent1 = agentService.createAgent(tenantId, "agent-1").agentId();
+    String agent2 = agentService.createAgent(tenantId, "agent-2").agentId();
+    String agent3 = agentService.createAgent(tenantId, "agent-3").agentId();
+    java.time.Instant expiry = java.time.Instant.now().plusSeconds(3600);
+
+    BatchCreateLeaseRequest batch =
+        new BatchCreateLeaseRequest(
+            List.of(
+                new CreateLeaseRequest(agent1, "pubkey-1", "enc-1", expiry),
+                new CreateLeaseRequest(agent1, "pubkey-1b", "enc-1b", expiry),
+                new CreateLeaseRequest(agent2, "pubkey-2", "enc-2", expiry),
+                new CreateLeaseRequest(agent3, "pubkey-3", "enc-3", expiry)));
+    mockMvc
+        .perform(
+            post("/api/v1/secrets/" + secretId + "/leases:batch")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+        .andExpect(status().isOk());
+
+    mockMvc
+        .perform(
+            post("/api/v1/secrets/" + secretId + "/leases:revoke")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new RevokeLeasesRequest(List.of(agent1, agent2, "999999")))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.revoked").value(3));
+
+    mockMvc
+        .perform(
+            get("/api/v1/secrets/" + secretId + "/leases")
+                .header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].agentId").value(agent3));
+  }
+
   @Test
   void updateSecret_WithEncryptedValue_DeletesLeases() throws Exception {
     Long tenantId = createTenant();
@@ -528,6 +969,69 @@ class SecretControllerTest extends BaseIntegrationTest {
         .andExpect(jsonPath("$", hasSize(0)));
   }
 
+  @Test
+  void updateSecret_WithEncryptedValueAndUpdatedLeases_ReplacesLeases() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String token = getAuthToken("admin@example.com", "password");
+
+    String secretId = createSecret(token, "Secret");
+    String agent1 = agentService.createAgent(tenantId, "agent-1").agentId();
+    String agent2 = agentService.createAgent(tenantId, "agent-2").agentId();
+
+    mockMvc
+        .perform(
+            post("/api/v1/secrets/" + secretId + "/leases")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new CreateLeaseRequest(
+                            agent1, "pubkey-1", "old", java.time.Instant.now().plusSeconds(60)))))
+        .andExpect(status().isOk());
+
+    // An unknown agent rejects the whole rotation
+    UpdateSecretRequest invalid =
+        new UpdateSecretRequest(
+            null,
+            "new-encrypted-value",
+            null,
+            defaultSchema(),
+            List.of(new UpdateSecretRequest.LeaseUpdateRequest("999999", "pubkey", "enc")));
+    mockMvc
+        .perform(
+            patch("/api/v1/secrets/" + secretId)
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(invalid)))
+        .andExpect(status().isBadRequest());
+
+    UpdateSecretRequest rotation =
+        new UpdateSecretRequest(
+            null,
+            "new-encrypted-value",
+            null,
+            defaultSchema(),
+            List.of(
+                new UpdateSecretRequest.LeaseUpdateRequest(agent1, "pubkey-1", "new-1"),
+                new UpdateSecretRequest.LeaseUpdateRequest(agent2, "pubkey-2", "new-2")));
+    mockMvc
+        .perform(
+            patch("/api/v1/secrets/" + secretId)
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(rotation)))
+        .andExpect(status().isOk());
+
+    mockMvc
+        .perform(
+            get("/api/v1/secrets/" + secretId + "/leases")
+                .header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[*].encryptedData", containsInAnyOrder("new-1", "new-2")));
+  }
+
   @Test
   void listSecrets_Success() throws Exception {
     Long tenantId = createTenant();
@@ -667,6 +1171,36 @@ class SecretControllerTest extends BaseIntegrationTest {
         .andExpect(status().isBadRequest());
   }
 
+  @Test
+  void createSecret_WithOversizedMetadata_BadRequest() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String token = getAuthToken("admin@example.com", "password");
+
+    // Just under the limit once the surrounding JSON is added
+    CreateSecretRequest fits =
+        new CreateSecretRequest(
+            "Fits", "encrypted", Map.of("notes", "x".repeat(8000)), defaultSchema());
+    mockMvc
+        .perform(
+            post("/api/v1/secrets")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(fits)))
+        .andExpect(status().isOk());
+
+    CreateSecretRequest tooLarge =
+        new CreateSecretRequest(
+            "Too Large", "encrypted", Map.of("notes", "x".repeat(20_000)), defaultSchema());
+    mockMvc
+        .perform(
+            post("/api/v1/secrets")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(tooLarge)))
+        .andExpect(status().isBadRequest());
+  }
+
   @Test
   void updateSecret_WithSchema_RoundTripSuccess() throws Exception {
     Long tenantId = createTenant();
@@ -698,6 +1232,87 @@ class SecretControllerTest extends BaseIntegrationTest {
         .andExpect(jsonPath("$.schema.version").value(2));
   }
 
+  @Test
+  void listSecrets_WithCursor_PagesThroughAllSecrets() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String token = getAuthToken("admin@example.com", "password");
+
+    String secretId1 = createSecret(token, "Page 1");
+    String secretId2 = createSecret(token, "Page 2");
+    String secretId3 = createSecret(token, "Page 3");
+
+    // First page
+    String nextCursor =
+        mockMvc
+            .perform(
+                get("/api/v1/secrets")
+                    .param("limit", "2")
+                    .header("Authorization", "Bearer " + token))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].secretId").value(secretId1))
+            .andExpect(jsonPath("$[1].secretId").value(secretId2))
+            .andExpect(header().string("X-Next-Cursor", secretId2))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+
+    // Last page has no next cursor
+    mockMvc
+        .perform(
+            get("/api/v1/secrets")
+                .param("limit", "2")
+                .param("cursor", nextCursor)
+                .header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].secretId").value(secretId3))
+        .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+    // Out of range limit
+    mockMvc
+        .perform(
+            get("/api/v1/secrets").param("limit", "0").header("Authorization", "Bearer " + token))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void listSecrets_AsNdjson_StreamsOneSecretPerLine() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+    String token = getAuthToken("admin@example.com", "password");
+
+    createSecret(token, "Stream 1");
+    createSecret(token, "Stream 2");
+
+    MvcResult asyncResult =
+        mockMvc
+            .perform(
+                get("/api/v1/secrets")
+                    .param("format", "ndjson")
+                    .header("Authorization", "Bearer " + token))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    asyncResult.getAsyncResult();
+
+    String body =
+        mockMvc
+            .perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    String[] lines = body.strip().split("\n");
+    org.assertj.core.api.Assertions.assertThat(lines).hasSize(2);
+    org.assertj.core.api.Assertions.assertThat(objectMapper.readTree(lines[0]).get("name").asText())
+        .isEqualTo("Stream 1");
+    org.assertj.core.api.Assertions.assertThat(objectMapper.readTree(lines[1]).get("name").asText())
+        .isEqualTo("Stream 2");
+  }
+
   // Helper methods
   private Map<String, Object> defaultSchema() {
     return Map.of("template", "legacy", "version", 1);
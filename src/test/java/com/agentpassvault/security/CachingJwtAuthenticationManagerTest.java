@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2026 Tsung-en Hsiao
+ *
+ * Licensed under the GNU Affero General Public License v3.0 or later.
+ * See LICENSE file in the project root for full license information.
+ */
+package com.agentpassvault.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.agentpassvault.cache.JwtAuthenticationCache;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.crypto.SecretKey;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+
+class CachingJwtAuthenticationManagerTest {
+
+  private final SecretKey key = Jwts.SIG.HS256.key().build();
+  private final AtomicInteger decodes = new AtomicInteger();
+  private final JwtDecoder nimbus = NimbusJwtDecoder.withSecretKey(key).build();
+  private final JwtDecoder countingDecoder =
+      token -> {
+        decodes.incrementAndGet();
+        return nimbus.decode(token);
+      };
+  private final CachingJwtAuthenticationManager manager =
+      new CachingJwtAuthenticationManager(
+          countingDecoder,
+          new JwtConverter(),
+          new JwtAuthenticationCache(100, new SimpleMeterRegistry()),
+          // Nothing is revoked, so the repository is never used
+          new TokenRevocationList(
+              null, 60, 1000, Duration.ofSeconds(10), new SimpleMeterRegistry()));
+
+  @Test
+  void authenticate_SameToken_VerifiedOnce() {
+    String token = token(key);
+
+    Authentication first = manager.authenticate(new BearerTokenAuthenticationToken(token));
+    Authentication second = manager.authenticate(new BearerTokenAuthenticationToken(token));
+
+    assertSame(first, second);
+    assertEquals(1, decodes.get());
+    AgentPassVaultAuthentication auth = assertInstanceOf(AgentPassVaultAuthentication.class, first);
+    assertEquals(7L, auth.getTenantId());
+    assertEquals(42L, auth.getPrincipal());
+    assertNull(auth.getDetails());
+  }
+
+  @Test
+  void authenticate_InvalidSignature_NotCached() {
+    String forged = token(Jwts.SIG.HS256.key().build());
+
+    assertThrows(
+        AuthenticationException.class,
+        () -> manager.authenticate(new BearerTokenAuthenticationToken(forged)));
+    assertThrows(
+        AuthenticationException.class,
+        () -> manager.authenticate(new BearerTokenAuthenticationToken(forged)));
+    assertEquals(2, decodes.get());
+  }
+
+  private static String token(SecretKey signingKey) {
+    Instant now = Instant.now();
+    return Jwts.builder()
+        .subject("42")
+        .claim("tenant_id", "7")
+        .claim("role", "ADMIN")
+        .issuedAt(Date.from(now))
+        .expiration(Date.from(now.plusSeconds(300)))
+        .signWith(signingKey)
+        .compact();
+  }
+}
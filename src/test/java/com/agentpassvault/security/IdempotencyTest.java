@@ -6,24 +6,52 @@
  */
 package com.agentpassvault.security;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.agentpassvault.BaseIntegrationTest;
 import com.agentpassvault.dto.CreateSecretRequest;
 import com.agentpassvault.dto.UserLoginRequest;
+import com.agentpassvault.model.IdempotencyRecord;
+import com.agentpassvault.model.IdempotencyState;
+import com.agentpassvault.repository.IdempotencyRecordRepository;
+import com.agentpassvault.service.IdempotencyCleanupTask;
 import com.agentpassvault.service.UserService;
+import java.time.Duration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Map;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.util.unit.DataSize;
 
 class IdempotencyTest extends BaseIntegrationTest {
 
   @Autowired private UserService userService;
 
+  @Autowired private IdempotencyStore idempotencyStore;
+
+  @Autowired private IdempotencyRecordRepository idempotencyRecordRepository;
+
+  @Autowired private IdempotencyCleanupTask idempotencyCleanupTask;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
   @Test
   void testIdempotency_Success() throws Exception {
     Long tenantId = createTenant();
@@ -82,4 +110,233 @@ class IdempotencyTest extends BaseIntegrationTest {
     // Verify only one secret created in DB
     assertEquals(1, secretRepository.count());
   }
+
+  @Test
+  void testIdempotency_RecordReachesDatabaseOnFlush() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+
+    String loginResponse =
+        mockMvc
+            .perform(
+                post("/api/v1/auth/login/user")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new UserLoginRequest("admin@example.com", "password"))))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String token = objectMapper.readTree(loginResponse).get("accessToken").asText();
+
+    String idempotencyKey = UUID.randomUUID().toString();
+    CreateSecretRequest request =
+        new CreateSecretRequest(
+            "Durable Secret", "val", null, Map.of("template", "legacy", "version", 1));
+    mockMvc
+        .perform(
+            post("/api/v1/secrets")
+                .header("Authorization", "Bearer " + token)
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk());
+
+    idempotencyStore.flush();
+
+    assertTrue(idempotencyRecordRepository.existsById(tenantId + ":" + idempotencyKey));
+  }
+
+  @Test
+  void testIdempotency_KeyInFlightElsewhere_Conflict() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+
+    String loginResponse =
+        mockMvc
+            .perform(
+                post("/api/v1/auth/login/user")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new UserLoginRequest("admin@example.com", "password"))))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String token = objectMapper.readTree(loginResponse).get("accessToken").asText();
+
+    // Another node has reserved the key and is still working on it
+    String idempotencyKey = UUID.randomUUID().toString();
+    idempotencyRecordRepository.reserve(tenantId + ":" + idempotencyKey, Instant.now());
+
+    CreateSecretRequest request =
+        new CreateSecretRequest(
+            "Contended Secret", "val", null, Map.of("template", "legacy", "version", 1));
+    mockMvc
+        .perform(
+            post("/api/v1/secrets")
+                .header("Authorization", "Bearer " + token)
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isConflict())
+        .andExpect(header().exists("Retry-After"));
+
+    assertEquals(0, secretRepository.count());
+  }
+
+  @Test
+  void testIdempotency_LargeResponse_StoredCompressedAndReplayedVerbatim() throws Exception {
+    Long tenantId = createTenant();
+    userService.createAdminUser(tenantId, "admin@example.com", "password");
+
+    String loginResponse =
+        mockMvc
+            .perform(
+                post("/api/v1/auth/login/user")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new UserLoginRequest("admin@example.com", "password"))))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String token = objectMapper.readTree(loginResponse).get("accessToken").asText();
+
+    String idempotencyKey = UUID.randomUUID().toString();
+    CreateSecretRequest request =
+        new CreateSecretRequest(
+            "Large Secret",
+            "val",
+            null,
+            Map.of("template", "legacy", "version", 1, "notes", "n".repeat(4096)));
+    byte[] firstResponse =
+        mockMvc
+            .perform(
+                post("/api/v1/secrets")
+                    .header("Authorization", "Bearer " + token)
+                    .header("Idempotency-Key", idempotencyKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+
+    idempotencyStore.flush();
+
+    IdempotencyRecord record =
+        idempotencyRecordRepository.findById(tenantId + ":" + idempotencyKey).orElseThrow();
+    assertTrue(record.isCompressed());
+    assertEquals(firstResponse.length, record.getBodyLength());
+    assertTrue(record.getResponseBody().length < firstResponse.length);
+    assertTrue(record.getContentType().startsWith(MediaType.APPLICATION_JSON_VALUE));
+
+    byte[] secondResponse =
+        mockMvc
+            .perform(
+                post("/api/v1/secrets")
+                    .header("Authorization", "Bearer " + token)
+                    .header("Idempotency-Key", idempotencyKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+
+    assertArrayEquals(firstResponse, secondResponse);
+    assertEquals(1, secretRepository.count());
+  }
+
+  @Test
+  void testIdempotency_FailedFlush_RetryAfterTimeoutReplaysInsteadOfRunningAgain()
+      throws Exception {
+    FailingTransactionManager failing = new FailingTransactionManager(transactionManager);
+    // A one-byte cache cannot hold the response, so only the pinned copy keeps it
+    IdempotencyStore store =
+        new IdempotencyStore(
+            idempotencyRecordRepository,
+            failing,
+            DataSize.ofBytes(1),
+            10,
+            10,
+            Duration.ofSeconds(60),
+            DataSize.ofKilobytes(1),
+            objectMapper,
+            new SimpleMeterRegistry());
+
+    // Reserved long enough ago that the PENDING row is past the pending timeout
+    String recordId = UUID.randomUUID() + ":key";
+    idempotencyRecordRepository.reserve(recordId, Instant.now().minus(Duration.ofMinutes(2)));
+    byte[] body = "{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8);
+    store.complete(recordId, 200, MediaType.APPLICATION_JSON_VALUE, Map.of(), body);
+
+    failing.failing = true;
+    store.flush();
+    assertEquals(
+        IdempotencyState.PENDING,
+        idempotencyRecordRepository.findById(recordId).orElseThrow().getState());
+
+    IdempotencyStore.Reservation retry = store.reserve(recordId);
+    assertFalse(retry.acquired());
+    assertNotNull(retry.completed());
+    ByteArrayOutputStream replayed = new ByteArrayOutputStream();
+    retry.completed().writeBodyTo(replayed);
+    assertArrayEquals(body, replayed.toByteArray());
+    assertTrue(store.findRecent(recordId).isPresent());
+
+    // The failed write is not lost: once MySQL accepts it the next flush completes the row
+    failing.failing = false;
+    store.flush();
+    IdempotencyRecord record = idempotencyRecordRepository.findById(recordId).orElseThrow();
+    assertEquals(IdempotencyState.COMPLETED, record.getState());
+    assertArrayEquals(body, record.getResponseBody());
+  }
+
+  @Test
+  void testIdempotency_CleanupDeletesOnlyExpiredRecords() {
+    String prefix = UUID.randomUUID() + ":";
+    Instant expired = Instant.now().minus(IdempotencyStore.RETENTION).minus(Duration.ofHours(1));
+    for (int i = 0; i < 3; i++) {
+      idempotencyRecordRepository.reserve(prefix + "expired-" + i, expired);
+    }
+    idempotencyRecordRepository.reserve(prefix + "live", Instant.now());
+
+    idempotencyCleanupTask.cleanup();
+
+    for (int i = 0; i < 3; i++) {
+      assertFalse(idempotencyRecordRepository.existsById(prefix + "expired-" + i));
+    }
+    assertTrue(idempotencyRecordRepository.existsById(prefix + "live"));
+  }
+
+  private static final class FailingTransactionManager implements PlatformTransactionManager {
+
+    private final PlatformTransactionManager delegate;
+    volatile boolean failing;
+
+    FailingTransactionManager(PlatformTransactionManager delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) {
+      if (failing) {
+        throw new CannotCreateTransactionException("Database unavailable");
+      }
+      return delegate.getTransaction(definition);
+    }
+
+    @Override
+    public void commit(TransactionStatus status) {
+      delegate.commit(status);
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) {
+      delegate.rollback(status);
+    }
+  }
 }